@@ -0,0 +1,22 @@
+package sk.zzs.vehicle.management.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import sk.zzs.vehicle.management.service.VehicleSearchIndex;
+
+/**
+ * Builds the vehicle search index on a registry that has none yet (first start with it, or a
+ * database filled by other means). Until it is built the search scans as before.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexRunner implements CommandLineRunner {
+
+    private final VehicleSearchIndex vehicleSearchIndex;
+
+    @Override
+    public void run(String... args) {
+        vehicleSearchIndex.rebuildIfEmpty();
+    }
+}
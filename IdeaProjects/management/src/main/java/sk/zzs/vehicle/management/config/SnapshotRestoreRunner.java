@@ -0,0 +1,51 @@
+package sk.zzs.vehicle.management.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import sk.zzs.vehicle.management.service.RegistrySnapshotService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Bootstraps a new node from a snapshot: start it with {@code --snapshot.restore-from=<file>}.
+ * The snapshot is loaded once all beans exist but before the embedded web server starts, so
+ * no request sees a half-restored registry; a node whose registry already has data (e.g.
+ * restarted with the same option) keeps its data and skips the restore. A failed restore
+ * fails the startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotRestoreRunner implements SmartInitializingSingleton {
+
+    private final RegistrySnapshotService registrySnapshotService;
+
+    @Value("${snapshot.restore-from:}")
+    private String restoreFrom;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (restoreFrom.isBlank()) return;
+
+        Path file = Path.of(restoreFrom);
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalStateException("snapshot.restore-from: no such file " + file);
+        }
+        if (!registrySnapshotService.isSchemaEmpty()) {
+            log.info("Registry is not empty, snapshot {} not restored", file);
+            return;
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            log.info("Restored snapshot {}: {}", file, registrySnapshotService.restore(in));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not restore snapshot " + file, e);
+        }
+    }
+}
@@ -1,12 +1,26 @@
 package sk.zzs.vehicle.management.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import sk.zzs.vehicle.management.dto.ImportJobStatusDto;
 import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.enumer.ImportEngine;
+import sk.zzs.vehicle.management.enumer.ImportMode;
 import sk.zzs.vehicle.management.service.DataImportService;
+import sk.zzs.vehicle.management.service.ImportErrorReportService;
+import sk.zzs.vehicle.management.service.ImportJobService;
+import sk.zzs.vehicle.management.service.StagingImportService;
+import sk.zzs.vehicle.management.util.CompressedUploads;
+
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/import")
@@ -14,25 +28,102 @@ import sk.zzs.vehicle.management.service.DataImportService;
 public class DataImportController {
 
     private final DataImportService dataImportService;
+    private final ImportJobService importJobService;
+    private final StagingImportService stagingImportService;
+    private final ImportErrorReportService importErrorReportService;
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ImportResultSummary> importCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<ImportResultSummary> importCsv(@RequestParam("file") MultipartFile file,
+                                                         @RequestParam(defaultValue = "false") boolean restart,
+                                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                                         @RequestParam(defaultValue = "CREATE") ImportMode mode,
+                                                         @RequestParam(defaultValue = "BATCH") ImportEngine engine) {
+        String error = validateUpload(file);
+        if (error == null) error = validateEngine(engine, dryRun, mode);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(ImportResultSummary.error(error));
+        }
+        System.out.println("!!!!!!!!!!! Success passed controller !!!!!!!!!!!!");
+
+        ImportResultSummary result = engine == ImportEngine.STAGING
+                ? stagingImportService.importAllEntities(file)
+                : dataImportService.importAllEntities(file, restart, dryRun, mode);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Same as POST /api/import, but runs in the background; poll the returned job for progress.
+     * Several files (repeat the file part) or a zip of several .csv files make one job,
+     * providers are imported first, then vehicles and network points side by side.
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> submitImportJob(@RequestParam("file") MultipartFile[] files,
+                                             @RequestParam(defaultValue = "false") boolean restart,
+                                             @RequestParam(defaultValue = "false") boolean dryRun,
+                                             @RequestParam(defaultValue = "CREATE") ImportMode mode,
+                                             @RequestParam(defaultValue = "BATCH") ImportEngine engine) throws IOException {
+        String error = null;
+        for (MultipartFile file : files) {
+            if (error == null) error = validateUpload(file);
+        }
+        if (error == null) error = validateEngine(engine, dryRun, mode);
+        if (error == null && files.length > 1 && engine == ImportEngine.STAGING) {
+            error = "The STAGING engine imports one file per job, use engine=BATCH for several files";
+        }
+        if (error != null) {
+            return ResponseEntity.badRequest().body(ImportResultSummary.error(error));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(importJobService.submit(files, restart, dryRun, mode, engine).toStatusDto());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportJobStatusDto getImportJob(@PathVariable String jobId) {
+        return importJobService.getJob(jobId).toStatusDto();
+    }
+
+    @PostMapping("/jobs/{jobId}/cancel")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportJobStatusDto cancelImportJob(@PathVariable String jobId) {
+        return importJobService.cancel(jobId).toStatusDto();
+    }
+
+    @GetMapping("/jobs/{jobId}/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportResultSummary getImportJobSummary(@PathVariable String jobId) {
+        return importJobService.getSummary(jobId);
+    }
+
+    /** All errors of an import as CSV; the summary's errorReportId names the report */
+    @GetMapping("/errors/{reportId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Resource> downloadErrorReport(@PathVariable String reportId) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"import-errors-" + reportId + ".csv\"")
+                .body(new FileSystemResource(importErrorReportService.getReport(reportId)));
+    }
+
+    private String validateUpload(MultipartFile file) {
         if (file.isEmpty()) {
             System.out.println("!!!!!!!!!!! File is Empty !!!!!!!!!!!!");
-            return ResponseEntity.badRequest()
-                    .body(ImportResultSummary.error("Uploaded file is empty"));
+            return "Uploaded file is empty";
         }
 
-        if (!file.getOriginalFilename().toLowerCase().endsWith(".csv")) {
-            System.out.println("!!!!!!!!!!! File not a CSV !!!!!!!!!!!!");
-
-            return ResponseEntity.badRequest()
-                    .body(ImportResultSummary.error("Only .csv files are supported"));
+        if (!CompressedUploads.isSupported(file.getOriginalFilename())) {
+            System.out.println("!!!!!!!!!!! File not a CSV / XLSX !!!!!!!!!!!!");
+            return "Only .csv, .csv.gz, .zip and .xlsx files are supported";
         }
-        System.out.println("!!!!!!!!!!! Success passed controller !!!!!!!!!!!!");
+        return null;
+    }
 
-        ImportResultSummary result = dataImportService.importAllEntities(file);
-        return ResponseEntity.ok(result);
+    private String validateEngine(ImportEngine engine, boolean dryRun, ImportMode mode) {
+        if (engine == ImportEngine.STAGING && (dryRun || mode != ImportMode.CREATE)) {
+            return "The STAGING engine only creates records, use engine=BATCH for dryRun or mode=UPSERT";
+        }
+        return null;
     }
 }
@@ -1,12 +1,13 @@
 package sk.zzs.vehicle.management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import sk.zzs.vehicle.management.dto.NetworkPointDto;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.service.NetworkPointService;
 
 import java.time.LocalDate;
@@ -67,8 +68,9 @@ public class NetworkPointController {
     }
 
     @GetMapping("/archived/page")
-    public Page<NetworkPointDto> getArchivedPaged(Pageable pageable) {
-        return networkPointService.getArchived(pageable);
+    public Slice<NetworkPointDto> getArchivedPaged(Pageable pageable,
+                                                   @RequestParam(required = false) String includeTotal) {
+        return networkPointService.getArchived(pageable, IncludeTotal.parse(includeTotal));
     }
 
     @GetMapping("/archived/{id}")
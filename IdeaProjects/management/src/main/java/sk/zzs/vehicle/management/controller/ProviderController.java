@@ -1,11 +1,12 @@
 package sk.zzs.vehicle.management.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import sk.zzs.vehicle.management.dto.ProviderDto;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.service.NetworkPointService;
 import sk.zzs.vehicle.management.service.ProviderService;
 import sk.zzs.vehicle.management.service.VehicleService;
@@ -71,8 +72,9 @@ public class ProviderController {
     }
 
     @GetMapping("/archived/page")
-    public Page<ProviderDto> getArchivedPaged(Pageable pageable) {
-        return providerService.getArchived(pageable);
+    public Slice<ProviderDto> getArchivedPaged(Pageable pageable,
+                                               @RequestParam(required = false) String includeTotal) {
+        return providerService.getArchived(pageable, IncludeTotal.parse(includeTotal));
     }
 
     @GetMapping("/archived/{id}")
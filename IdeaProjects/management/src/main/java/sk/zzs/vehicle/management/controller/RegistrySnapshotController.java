@@ -0,0 +1,54 @@
+package sk.zzs.vehicle.management.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import sk.zzs.vehicle.management.service.RegistrySnapshotService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Binary snapshots of the registry. A fresh node can also restore one at startup,
+ * see {@code snapshot.restore-from}.
+ */
+@RestController
+@RequestMapping("/api/snapshot")
+@RequiredArgsConstructor
+public class RegistrySnapshotController {
+
+    private final RegistrySnapshotService registrySnapshotService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadSnapshot() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"registry-" + LocalDate.now() + ".snapshot\"")
+                .body(registrySnapshotService::snapshot);
+    }
+
+    /** Load a snapshot into an empty registry; returns the rows restored per table */
+    @PostMapping("/restore")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Long> restoreSnapshot(@RequestParam("file") MultipartFile file) {
+        try (InputStream in = file.getInputStream()) {
+            return registrySnapshotService.restore(in);
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid snapshot: " + e.getMessage());
+        }
+    }
+}
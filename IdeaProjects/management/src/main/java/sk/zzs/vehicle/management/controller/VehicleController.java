@@ -5,8 +5,8 @@ import org.springframework.core.io.UrlResource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -15,8 +15,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import sk.zzs.vehicle.management.dto.CursorPage;
 import sk.zzs.vehicle.management.dto.VehicleDto;
 import sk.zzs.vehicle.management.dto.VehicleFilter;
+import sk.zzs.vehicle.management.dto.VehicleMatch;
+import sk.zzs.vehicle.management.dto.VehicleSuggestion;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.service.VehicleService;
 
 import java.io.IOException;
@@ -35,17 +39,68 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
 
+    /**
+     * {@code includeTotal}: {@code exact} (default) counts the matches, {@code estimate} reuses a
+     * recent count of the same filter, {@code none} skips the count and returns a slice whose
+     * {@code last} says whether there is a next page. Rows come without file paths unless
+     * {@code includeFiles}; the vehicle detail always has them.
+     */
     @GetMapping
-    public Page<VehicleDto> getVehicles(
+    public Slice<VehicleDto> getVehicles(
             @RequestParam(required = false) String q,
             @RequestParam(required = false) String provider,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate stkValidFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate stkValidTo,
+            @RequestParam(required = false) String includeTotal,
+            @RequestParam(defaultValue = "false") boolean includeFiles,
             @PageableDefault(size = 20, sort = "id") Pageable pageable
     ) {
 
         VehicleFilter filter = new VehicleFilter(q, provider, stkValidFrom, stkValidTo);
-        return vehicleService.search(filter, pageable);
+        return vehicleService.search(filter, pageable, IncludeTotal.parse(includeTotal), includeFiles);
+    }
+
+    /**
+     * Same search paged by keyset instead of page number: pass the returned nextCursor as
+     * {@code cursor} to get the next page. Deep pages cost as much as the first one.
+     * {@code sort} ("field" or "field,desc") applies to the first page, the cursor keeps it.
+     * File paths only with {@code includeFiles}, as in the paged search.
+     */
+    @GetMapping("/scroll")
+    public CursorPage<VehicleDto> scrollVehicles(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String provider,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate stkValidFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate stkValidTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String sort,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "false") boolean includeFiles
+    ) {
+        VehicleFilter filter = new VehicleFilter(q, provider, stkValidFrom, stkValidTo);
+        return vehicleService.searchAfter(filter, cursor, sort, size, includeFiles);
+    }
+
+    /**
+     * Plate / VIN typeahead: up to {@code limit} vehicles, archived ones included, whose plate or
+     * VIN starts with {@code prefix}. Case, spaces, dashes and diacritics do not matter.
+     */
+    @GetMapping("/suggest")
+    public List<VehicleSuggestion> suggest(@RequestParam String prefix,
+                                           @RequestParam(defaultValue = "10") int limit) {
+        return vehicleService.suggest(prefix, limit);
+    }
+
+    /**
+     * Typo-tolerant plate / VIN lookup: vehicles, archived ones included, whose plate or VIN is at
+     * most {@code maxDistance} edits from {@code q}, closest first. Case, spaces, dashes and
+     * diacritics are ignored before counting, so "ba-123 ab" finds BA123AB at distance 0.
+     */
+    @GetMapping("/fuzzy")
+    public List<VehicleMatch> fuzzy(@RequestParam String q,
+                                    @RequestParam(defaultValue = "2") int maxDistance,
+                                    @RequestParam(defaultValue = "10") int limit) {
+        return vehicleService.fuzzy(q, maxDistance, limit);
     }
 
     @PostMapping
@@ -119,8 +174,10 @@ public class VehicleController {
     }
 
     @GetMapping("/archived/page")
-    public Page<VehicleDto> getArchivedPaged(Pageable pageable) {
-        return vehicleService.getArchived(pageable);
+    public Slice<VehicleDto> getArchivedPaged(Pageable pageable,
+                                              @RequestParam(required = false) String includeTotal,
+                                              @RequestParam(defaultValue = "false") boolean includeFiles) {
+        return vehicleService.getArchived(pageable, IncludeTotal.parse(includeTotal), includeFiles);
     }
 
     @GetMapping("/archived/{id}")
@@ -0,0 +1,11 @@
+package sk.zzs.vehicle.management.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged listing.
+ *
+ * @param nextCursor pass it back as {@code cursor} to get the next page, {@code null} on the last page
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
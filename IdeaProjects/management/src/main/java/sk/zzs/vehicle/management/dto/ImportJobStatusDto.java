@@ -0,0 +1,31 @@
+package sk.zzs.vehicle.management.dto;
+
+import lombok.Data;
+import sk.zzs.vehicle.management.enumer.ImportJobStatus;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/** Progress of a background import, as returned by the polling endpoint */
+@Data
+public class ImportJobStatusDto {
+    private String jobId;
+    private String fileName;
+    private ImportJobStatus status;
+
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+
+    /** Rows read so far (imported or skipped) per section */
+    private Map<String, Long> rowsProcessed;
+    private double rowsPerSecond;
+
+    private long bytesRead;
+    private long totalBytes;
+    private double percentDone;
+    /** Estimated seconds left, null while it cannot be estimated yet or once the job finished */
+    private Long etaSeconds;
+
+    private String failure;
+}
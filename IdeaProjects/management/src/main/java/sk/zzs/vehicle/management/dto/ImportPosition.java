@@ -0,0 +1,13 @@
+package sk.zzs.vehicle.management.dto;
+
+/**
+ * Checkpoint to store together with a written chunk: the import of section
+ * {@code sectionIndex} of file {@code fileHash} got up to {@code lastRecordNumber}.
+ */
+public record ImportPosition(
+        String fileHash,
+        int sectionIndex,
+        String section,
+        long lastRecordNumber,
+        boolean completed
+) {}
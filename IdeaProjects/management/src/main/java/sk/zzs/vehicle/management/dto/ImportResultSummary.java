@@ -1,11 +1,21 @@
 package sk.zzs.vehicle.management.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import sk.zzs.vehicle.management.enumer.ImportErrorType;
+import sk.zzs.vehicle.management.util.ImportErrorReport;
+
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Result of one import. The methods that record results are synchronized, so the sections
+ * of a multi-file job may report into the same summary from their own threads.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,23 +23,104 @@ public class ImportResultSummary {
     private SectionResult providers = new SectionResult();
     private SectionResult vehicles = new SectionResult();
     private SectionResult networkPoints = new SectionResult();
+    /**
+     * Errors not tied to a row, plus the first {@code import.errors.sample-size} row errors;
+     * all row errors are in the error report
+     */
     private List<String> errors = new ArrayList<>();
+    /** All errors, including those left out of {@link #errors} */
+    private long errorCount;
+    private Map<ImportErrorType, Long> errorCounts = new EnumMap<>(ImportErrorType.class);
+    /** Id for GET /api/import/errors/{id}, {@code null} when nothing was reported */
+    private String errorReportId;
+    /** Things worth knowing that did not make a row fail, e.g. sections resumed from a checkpoint */
+    private List<String> warnings = new ArrayList<>();
+    /** Validate-only run: the counts say what would have been imported, nothing was written */
+    private boolean dryRun;
+
+    @JsonIgnore
+    private int errorSampleSize = Integer.MAX_VALUE;
+    @JsonIgnore
+    private int sampledRowErrors;
+    @JsonIgnore
+    private ImportErrorReport errorReport;
 
     public static ImportResultSummary error(String message) {
         ImportResultSummary r = new ImportResultSummary();
-        r.errors.add(message);
+        r.addError(message);
         return r;
     }
 
-    public void addError(String msg) {
+    /** Error not tied to a row; always kept in {@link #errors} */
+    public synchronized void addError(String msg) {
         errors.add(msg);
+        count(ImportErrorType.GENERAL);
+        report(null, null, ImportErrorType.GENERAL, msg);
+    }
+
+    /**
+     * A row was rejected: counts it as skipped and reports the error. The message only
+     * becomes part of the response while the sample is not full.
+     */
+    public synchronized void rowFailed(String section, String label, long recordNumber, ImportErrorType type, String message) {
+        incSkipped(section);
+        count(type);
+        if (sampledRowErrors < errorSampleSize) {
+            sampledRowErrors++;
+            errors.add(label + " row " + recordNumber + ": " + message);
+        }
+        report(section, recordNumber, type, message);
+    }
+
+    /** Send every further error also to {@code report} and keep at most {@code sampleSize} row errors in the response */
+    public synchronized void reportErrorsTo(ImportErrorReport report, int sampleSize) {
+        this.errorReport = report;
+        this.errorSampleSize = sampleSize;
+    }
+
+    /** Flush the error report; errors added later are still appended to it */
+    public synchronized void closeErrorReport() {
+        if (errorReport != null) errorReport.close();
+    }
+
+    private void count(ImportErrorType type) {
+        errorCount++;
+        errorCounts.merge(type, 1L, Long::sum);
     }
 
-    public void incImported(String section) {
+    private void report(String section, Long row, ImportErrorType type, String message) {
+        if (errorReport == null) return;
+        try {
+            errorReport.write(section, row, type, message);
+            errorReportId = errorReport.getId();
+        } catch (RuntimeException e) {
+            // the import goes on, only the report is incomplete
+            errorReport = null;
+            warnings.add("Error report incomplete: " + e.getMessage());
+        }
+    }
+
+    public synchronized void addWarning(String msg) {
+        warnings.add(msg);
+    }
+
+    public synchronized void incImported(String section) {
         getSection(section).imported++;
     }
 
-    public void incSkipped(String section) {
+    public synchronized void addImported(String section, int count) {
+        getSection(section).imported += count;
+    }
+
+    public synchronized void incUpdated(String section) {
+        getSection(section).updated++;
+    }
+
+    public synchronized void incUnchanged(String section) {
+        getSection(section).unchanged++;
+    }
+
+    public synchronized void incSkipped(String section) {
         getSection(section).skipped++;
     }
 
@@ -45,6 +136,10 @@ public class ImportResultSummary {
     @Data
     public static class SectionResult {
         private int imported = 0;
+        /** Upsert only: existing records the file changed */
+        private int updated = 0;
+        /** Upsert only: existing records already equal to their row, not written */
+        private int unchanged = 0;
         private int skipped = 0;
     }
 }
@@ -0,0 +1,10 @@
+package sk.zzs.vehicle.management.dto;
+
+/**
+ * One validated CSV row waiting to be written, together with its record number
+ * inside the section so errors can still point at the original row.
+ */
+public record ImportRow<T>(
+        long recordNumber,
+        T dto
+) {}
@@ -0,0 +1,93 @@
+package sk.zzs.vehicle.management.dto;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Position in a keyset-paged vehicle listing: the sort of the listing plus the sort value and
+ * id of the last vehicle returned. Clients only see it as an opaque token ({@link #encode()}).
+ *
+ * @param value sort value of the last vehicle, may be {@code null} for nullable columns
+ * @param id    id of the last vehicle, {@code null} before the first page
+ */
+public record VehicleCursor(String sort, Sort.Direction direction, Object value, Long id) {
+
+    /**
+     * Attributes a listing can be sorted by and their types; only indexed columns,
+     * so that every page is an index range scan
+     */
+    public static final Map<String, Class<?>> SORTABLE = Map.of(
+            "id", Long.class,
+            "licensePlate", String.class,
+            "vinNum", String.class,
+            "technicalCheckValidUntil", LocalDate.class,
+            "providerAssignmentEndDate", LocalDate.class);
+
+    private static final String VERSION = "v1";
+
+    /** Position before the first vehicle of a listing sorted by {@code sort} ("field" or "field,desc") */
+    public static VehicleCursor start(String sort) {
+        String[] parts = (sort == null || sort.isBlank() ? "id" : sort).split(",");
+        String field = parts[0].trim();
+        if (!SORTABLE.containsKey(field)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot sort by '" + field + "', use one of " + SORTABLE.keySet());
+        }
+        Sort.Direction direction = parts.length > 1
+                ? Sort.Direction.fromOptionalString(parts[1].trim()).orElseThrow(() ->
+                        new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort direction '" + parts[1] + "'"))
+                : Sort.Direction.ASC;
+        return new VehicleCursor(field, direction, null, null);
+    }
+
+    /** Position after {@code last}, which was listed with this cursor's sort */
+    public VehicleCursor after(Vehicle last) {
+        Object lastValue = switch (sort) {
+            case "licensePlate" -> last.getLicensePlate();
+            case "vinNum" -> last.getVinNum();
+            case "technicalCheckValidUntil" -> last.getTechnicalCheckValidUntil();
+            case "providerAssignmentEndDate" -> last.getProviderAssignmentEndDate();
+            default -> last.getId();
+        };
+        return new VehicleCursor(sort, direction, lastValue, last.getId());
+    }
+
+    public boolean isStart() {
+        return id == null;
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, sort, direction.name(), String.valueOf(id),
+                value == null ? "" : "=" + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static VehicleCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0]) || !SORTABLE.containsKey(parts[1])
+                    || !(parts[4].isEmpty() || parts[4].startsWith("="))) {
+                throw new IllegalArgumentException(raw);
+            }
+            Class<?> type = SORTABLE.get(parts[1]);
+            Object value = null;
+            if (!parts[4].isEmpty()) {
+                String v = parts[4].substring(1);
+                value = type == Long.class ? (Object) Long.valueOf(v)
+                        : type == LocalDate.class ? LocalDate.parse(v)
+                        : v;
+            }
+            return new VehicleCursor(parts[1], Sort.Direction.valueOf(parts[2]), value, Long.valueOf(parts[3]));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -7,6 +7,13 @@ import sk.zzs.vehicle.management.entity.*;
 import sk.zzs.vehicle.management.repository.ProviderRepository;
 import sk.zzs.vehicle.management.service.ProviderService;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 public class VehicleMapper {
 
@@ -46,6 +53,68 @@ public class VehicleMapper {
             providerName = provider != null ? provider.getName() : null;
         }
 
+        VehicleDto dto = toDto(v, providerId, providerName);
+        dto.setFilePaths(v.getFilePaths());
+        return dto;
+    }
+
+    /**
+     * Listing rows of a list of vehicles: {@link #toDto} without the file paths, which would cost
+     * a query per vehicle. Providers are loaded for the whole list: one query for those of active
+     * vehicles, two for those of archived ones (their provider ids, then the providers including
+     * archived ones) instead of two per vehicle.
+     */
+    public List<VehicleDto> toDtos(List<Vehicle> vehicles) {
+        // active vehicles hold lazy provider proxies; loading their providers in one query
+        // puts them in the persistence context, so the proxies resolve without a query each
+        Set<Long> activeProviderIds = new HashSet<>();
+        for (Vehicle v : vehicles) {
+            if (!v.isArchived() && v.getProvider() != null) activeProviderIds.add(v.getProvider().getId());
+        }
+        if (!activeProviderIds.isEmpty()) {
+            providerRepository.findAllById(activeProviderIds);
+        }
+
+        List<Long> archivedIds = vehicles.stream().filter(Vehicle::isArchived).map(Vehicle::getId).toList();
+        if (archivedIds.isEmpty()) {
+            return vehicles.stream().map(this::toActiveDto).toList();
+        }
+
+        Map<Long, Long> providerIdByVehicle = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery("SELECT id, provider_id FROM vehicle WHERE id IN (:ids)")
+                .setParameter("ids", archivedIds)
+                .getResultList();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                providerIdByVehicle.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        }
+        Map<Long, String> providerNames = new HashMap<>();
+        if (!providerIdByVehicle.isEmpty()) {
+            for (Provider p : providerRepository.findAllByIdIncludingArchived(new HashSet<>(providerIdByVehicle.values()))) {
+                providerNames.put(p.getId(), p.getName());
+            }
+        }
+
+        List<VehicleDto> dtos = new ArrayList<>(vehicles.size());
+        for (Vehicle v : vehicles) {
+            if (v.isArchived()) {
+                Long providerId = providerIdByVehicle.get(v.getId());
+                dtos.add(toDto(v, providerId, providerNames.get(providerId)));
+            } else {
+                dtos.add(toActiveDto(v));
+            }
+        }
+        return dtos;
+    }
+
+    private VehicleDto toActiveDto(Vehicle v) {
+        Provider provider = v.getProvider();
+        return provider != null ? toDto(v, provider.getId(), provider.getName()) : toDto(v, null, null);
+    }
+
+    private VehicleDto toDto(Vehicle v, Long providerId, String providerName) {
         return VehicleDto.builder()
                 .id(v.getId())
                 .licensePlate(v.getLicensePlate())
@@ -61,8 +130,6 @@ public class VehicleMapper {
                 .providerAssignmentEndDate(v.getProviderAssignmentEndDate())
 //                .avlDeviceId(v.getAvlDevice() != null ? v.getAvlDevice().getId() : null)
 //                .rdstDeviceId(v.getRdstDevice() != null ? v.getRdstDevice().getId() : null)
-
-                .filePaths(v.getFilePaths())
                 .build();
     }
 
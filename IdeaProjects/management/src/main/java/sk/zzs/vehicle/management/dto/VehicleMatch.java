@@ -0,0 +1,10 @@
+package sk.zzs.vehicle.management.dto;
+
+/**
+ * A vehicle found by the fuzzy plate / VIN lookup.
+ *
+ * @param distance edits (Levenshtein) between the normalized query and the closer of the
+ *                 vehicle's normalized plate and VIN; 0 for a match up to case, spaces, dashes and diacritics
+ */
+public record VehicleMatch(VehicleSuggestion vehicle, int distance) {
+}
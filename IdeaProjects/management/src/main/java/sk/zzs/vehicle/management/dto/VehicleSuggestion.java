@@ -0,0 +1,10 @@
+package sk.zzs.vehicle.management.dto;
+
+/**
+ * A vehicle offered while the user types a plate or VIN.
+ *
+ * @param providerName name of the vehicle's provider, {@code null} when it has none (e.g. archived)
+ */
+public record VehicleSuggestion(Long id, String licensePlate, String vinNum,
+                                Long providerId, String providerName, boolean archived) {
+}
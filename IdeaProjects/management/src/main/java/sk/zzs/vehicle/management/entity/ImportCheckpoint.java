@@ -0,0 +1,39 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far the CSV import got in one section of one file, written in the same
+ * transaction as each chunk so a rerun of the same file can continue from here.
+ */
+@Entity
+@Data
+@Table(name = "import_checkpoint", uniqueConstraints = {
+        @UniqueConstraint(name = "uniq_import_checkpoint_section", columnNames = {"file_hash", "section_index"})
+})
+public class ImportCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** SHA-256 of the uploaded file, hex encoded */
+    @Column(nullable = false, length = 64)
+    private String fileHash;
+
+    /** Position of the section in the file (0 = first marker) */
+    private int sectionIndex;
+
+    private String section;
+
+    /** Record number (within the section) of the last row that was written */
+    private long lastRecordNumber;
+
+    /** Whole section processed, a rerun skips it */
+    private boolean completed;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * A network point row of the staging import as read from the file, before it is validated and
+ * merged into {@code network_point}. Written and read with SQL only; mapped so the schema is
+ * managed with the rest.
+ */
+@Entity
+@Data
+@IdClass(StageRowId.class)
+@Table(name = "network_point_stage", indexes = {
+        @Index(name = "idx_network_point_stage_code", columnList = "job_id, code")
+})
+public class NetworkPointStage {
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    @Id
+    private long recordNumber;
+
+    private String code;
+
+    private String name;
+
+    @Column(length = 32)
+    private String type;
+
+    private LocalDate validTo;
+
+    /** providerId of the provider as written in the file */
+    private String providerKey;
+
+    /** id of that provider, resolved before validation */
+    private Long providerRef;
+
+    private LocalDate providerEndDate;
+
+    @Column(length = 20)
+    private String errorType;
+
+    @Column(length = 1000)
+    private String errorMessage;
+}
@@ -0,0 +1,39 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One trigram of one provider's searchable texts, see {@code VehicleSearchIndex}. Written and read
+ * with SQL only; mapped so the schema is managed with the rest. The key leads with the gram, so
+ * the search finds all providers having a gram in the primary key.
+ */
+@Entity
+@Data
+@IdClass(ProviderSearchGram.Key.class)
+@Table(name = "provider_search_gram", indexes = {
+        @Index(name = "idx_provider_search_gram_provider", columnList = "provider_id")
+})
+public class ProviderSearchGram {
+
+    @Id
+    private long gram;
+
+    @Id
+    @Column(name = "provider_id")
+    private long providerId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private long gram;
+
+        private long providerId;
+    }
+}
@@ -0,0 +1,39 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * A provider row of the staging import as read from the file, before it is validated and merged
+ * into {@code provider}. Written and read with SQL only; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Data
+@IdClass(StageRowId.class)
+@Table(name = "provider_stage", indexes = {
+        @Index(name = "idx_provider_stage_provider_id", columnList = "job_id, provider_id"),
+        @Index(name = "idx_provider_stage_name", columnList = "job_id, name")
+})
+public class ProviderStage {
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    @Id
+    private long recordNumber;
+
+    private String providerId;
+
+    private String name;
+
+    private String email;
+
+    private String address;
+
+    @Column(length = 20)
+    private String errorType;
+
+    @Column(length = 1000)
+    private String errorMessage;
+}
@@ -0,0 +1,18 @@
+package sk.zzs.vehicle.management.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/** Key of a staging row: the import job it belongs to and its record number in the file */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageRowId implements Serializable {
+
+    private String jobId;
+
+    private long recordNumber;
+}
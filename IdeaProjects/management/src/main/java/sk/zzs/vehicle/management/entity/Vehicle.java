@@ -15,6 +15,10 @@ import java.util.List;
 // NEW: one active row per VIN; allow duplicates only when archived=true
 @Table(name = "vehicle", uniqueConstraints = {
         @UniqueConstraint(name = "uniq_vehicle_vin_archived", columnNames = {"vin_num","provider_id", "archived"})
+}, indexes = {
+        // keyset-paged listings sort by these (InnoDB appends the id to every secondary index)
+        @Index(name = "idx_vehicle_stk_valid_until", columnList = "technical_check_valid_until"),
+        @Index(name = "idx_vehicle_assignment_end", columnList = "provider_assignment_end_date")
 })
 @Data
 @EntityListeners(VehicleListener.class)
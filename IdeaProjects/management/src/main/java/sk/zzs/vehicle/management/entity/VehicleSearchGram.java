@@ -0,0 +1,39 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * One trigram of one vehicle's searchable texts, see {@code VehicleSearchIndex}. Written and read
+ * with SQL only; mapped so the schema is managed with the rest. The key leads with the gram, so
+ * the search finds all vehicles having a gram in the primary key.
+ */
+@Entity
+@Data
+@IdClass(VehicleSearchGram.Key.class)
+@Table(name = "vehicle_search_gram", indexes = {
+        @Index(name = "idx_vehicle_search_gram_vehicle", columnList = "vehicle_id")
+})
+public class VehicleSearchGram {
+
+    @Id
+    private long gram;
+
+    @Id
+    @Column(name = "vehicle_id")
+    private long vehicleId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private long gram;
+
+        private long vehicleId;
+    }
+}
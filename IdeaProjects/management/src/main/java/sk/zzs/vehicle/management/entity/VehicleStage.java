@@ -0,0 +1,53 @@
+package sk.zzs.vehicle.management.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * A vehicle row of the staging import as read from the file, before it is validated and merged
+ * into {@code vehicle}. Written and read with SQL only; mapped so the schema is managed with the rest.
+ */
+@Entity
+@Data
+@IdClass(StageRowId.class)
+@Table(name = "vehicle_stage", indexes = {
+        @Index(name = "idx_vehicle_stage_vin", columnList = "job_id, vin_num"),
+        @Index(name = "idx_vehicle_stage_plate", columnList = "job_id, license_plate")
+})
+public class VehicleStage {
+
+    @Id
+    @Column(length = 36)
+    private String jobId;
+
+    @Id
+    private long recordNumber;
+
+    private String vinNum;
+
+    private String brand;
+
+    private String model;
+
+    private String licensePlate;
+
+    private LocalDate firstRegistrationDate;
+
+    private LocalDate technicalCheckValidUntil;
+
+    /** providerId of the provider as written in the file */
+    private String providerKey;
+
+    /** id of that provider, resolved before validation */
+    private Long providerRef;
+
+    private LocalDate providerAssignmentEndDate;
+
+    @Column(length = 20)
+    private String errorType;
+
+    @Column(length = 1000)
+    private String errorMessage;
+}
@@ -0,0 +1,9 @@
+package sk.zzs.vehicle.management.enumer;
+
+/** Which implementation runs a CSV import */
+public enum ImportEngine {
+    /** Chunked JDBC batches with per-row validation in Java (supports upsert, dry run, resume) */
+    BATCH,
+    /** Whole sections bulk-loaded into staging tables, validated and merged with set-based SQL */
+    STAGING
+}
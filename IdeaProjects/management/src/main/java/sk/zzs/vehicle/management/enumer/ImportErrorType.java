@@ -0,0 +1,19 @@
+package sk.zzs.vehicle.management.enumer;
+
+/** Why an import row was rejected, counted per type in the import summary */
+public enum ImportErrorType {
+    /** Key (providerId, VIN, plate, code, name) already used in the DB or earlier in the file */
+    DUPLICATE,
+    /** Referenced provider does not exist */
+    NOT_FOUND,
+    /** Required column empty */
+    MISSING_VALUE,
+    /** Column that cannot be read, e.g. an unknown network point type */
+    INVALID_VALUE,
+    /** Upsert row that may not change its record (archived, owned by another provider, ...) */
+    CONFLICT,
+    /** Refused by the database when written */
+    DATABASE,
+    /** Failures not tied to a row: unreadable file, failed section, ... */
+    GENERAL
+}
@@ -0,0 +1,5 @@
+package sk.zzs.vehicle.management.enumer;
+
+public enum ImportJobStatus {
+    QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED
+}
@@ -0,0 +1,9 @@
+package sk.zzs.vehicle.management.enumer;
+
+/** How the CSV import treats rows whose key (providerId, VIN, network point code) already exists */
+public enum ImportMode {
+    /** Only new records; an existing key is an error */
+    CREATE,
+    /** New keys are created, existing records are updated when the row differs from them */
+    UPSERT
+}
@@ -0,0 +1,27 @@
+package sk.zzs.vehicle.management.enumer;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Locale;
+
+/** How a paged listing reports the total number of matching rows */
+public enum IncludeTotal {
+    /** runs a COUNT query with the listing's filters */
+    EXACT,
+    /** total from a recent count of the same listing, recounted when the cached one gets old */
+    ESTIMATE,
+    /** no total, only whether there is a next page */
+    NONE;
+
+    /** Parses the {@code includeTotal} request parameter, case-insensitively */
+    public static IncludeTotal parse(String value) {
+        if (value == null || value.isBlank()) return EXACT;
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "includeTotal must be one of exact, estimate, none");
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package sk.zzs.vehicle.management.listener;
 
 import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.PreRemove;
 import jakarta.persistence.PreUpdate;
 import sk.zzs.vehicle.management.entity.Provider;
@@ -8,6 +10,7 @@ import sk.zzs.vehicle.management.entity.ProviderLog;
 import sk.zzs.vehicle.management.enumer.OperationType;
 import sk.zzs.vehicle.management.util.CurrentUserProvider;
 import sk.zzs.vehicle.management.util.ProviderLogRepositoryHolder;
+import sk.zzs.vehicle.management.util.VehicleSearchIndexHolder;
 
 import java.time.LocalDateTime;
 
@@ -16,6 +19,7 @@ public class ProviderListener {
     @PostPersist
     public void onPostPersist(Provider provider) {
         saveLog(provider, OperationType.CREATE);
+        index(provider);
     }
 
     @PreUpdate
@@ -23,11 +27,25 @@ public class ProviderListener {
         saveLog(provider, OperationType.UPDATE);
     }
 
+    @PostUpdate
+    public void onPostUpdate(Provider provider) {
+        index(provider);
+    }
+
     @PreRemove
     public void onPreRemove(Provider provider) {
         saveLog(provider, OperationType.DELETE);
     }
 
+    @PostRemove
+    public void onPostRemove(Provider provider) {
+        VehicleSearchIndexHolder.getIndex().removeProvider(provider.getId());
+    }
+
+    private void index(Provider provider) {
+        VehicleSearchIndexHolder.getIndex().indexProvider(provider);
+    }
+
     private void saveLog(Provider provider, OperationType op) {
         ProviderLog log = new ProviderLog();
         log.setProviderId(provider.getId());
@@ -1,6 +1,8 @@
 package sk.zzs.vehicle.management.listener;
 
 import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
 import jakarta.persistence.PreRemove;
 import jakarta.persistence.PreUpdate;
 import sk.zzs.vehicle.management.entity.Vehicle;
@@ -8,6 +10,7 @@ import sk.zzs.vehicle.management.entity.VehicleLog;
 import sk.zzs.vehicle.management.enumer.OperationType;
 import sk.zzs.vehicle.management.util.CurrentUserProvider;
 import sk.zzs.vehicle.management.util.VehicleLogRepositoryHolder;
+import sk.zzs.vehicle.management.util.VehicleSearchIndexHolder;
 
 import java.time.LocalDateTime;
 
@@ -16,6 +19,7 @@ public class VehicleListener {
     @PostPersist
     public void onPostPersist(Vehicle vehicle) {
         saveLog(vehicle, OperationType.CREATE);
+        index(vehicle);
     }
 
     @PreUpdate
@@ -23,11 +27,25 @@ public class VehicleListener {
         saveLog(vehicle, OperationType.UPDATE);
     }
 
+    @PostUpdate
+    public void onPostUpdate(Vehicle vehicle) {
+        index(vehicle);
+    }
+
     @PreRemove
     public void onPreRemove(Vehicle vehicle) {
         saveLog(vehicle, OperationType.DELETE);
     }
 
+    @PostRemove
+    public void onPostRemove(Vehicle vehicle) {
+        VehicleSearchIndexHolder.getIndex().removeVehicle(vehicle.getId());
+    }
+
+    private void index(Vehicle vehicle) {
+        VehicleSearchIndexHolder.getIndex().indexVehicle(vehicle);
+    }
+
     private void saveLog(Vehicle vehicle, OperationType op) {
         VehicleLog log = new VehicleLog();
         log.setVehicleId(vehicle.getId());
@@ -0,0 +1,15 @@
+package sk.zzs.vehicle.management.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+import sk.zzs.vehicle.management.entity.ImportCheckpoint;
+
+import java.util.List;
+
+public interface ImportCheckpointRepository extends JpaRepository<ImportCheckpoint, Long> {
+
+    List<ImportCheckpoint> findByFileHash(String fileHash);
+
+    @Transactional
+    void deleteByFileHash(String fileHash);
+}
@@ -2,6 +2,7 @@ package sk.zzs.vehicle.management.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 import sk.zzs.vehicle.management.entity.NetworkPoint;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,14 @@ public interface NetworkPointRepository extends JpaRepository<NetworkPoint, Long
     @Query("SELECT COUNT(np) FROM NetworkPoint np WHERE np.owner.id = :providerId")
     long countByProviderId(@Param("providerId") Long providerId);
 
+    /** countByProviderId for several providers at once: rows of [providerId, count] */
+    @Query("SELECT np.owner.id, COUNT(np) FROM NetworkPoint np WHERE np.owner.id IN :providerIds GROUP BY np.owner.id")
+    List<Object[]> countByProviderIds(@Param("providerIds") Collection<Long> providerIds);
+
+    /** Which of the given codes are already used by a network point (active or archived) */
+    @Query(value = "SELECT code FROM network_point WHERE code IN (:codes)", nativeQuery = true)
+    List<String> findExistingCodesIncludingArchived(@Param("codes") Collection<String> codes);
+
     @Transactional
     @Modifying
     @Query("""
@@ -39,6 +49,13 @@ public interface NetworkPointRepository extends JpaRepository<NetworkPoint, Long
     )
     Page<NetworkPoint> findArchivedNative(Pageable pageable);
 
+    /** Same rows as {@link #findArchivedNative} without the count: one row more tells whether there is a next page */
+    @Query(value = "SELECT * FROM network_point np WHERE np.archived = true", nativeQuery = true)
+    Slice<NetworkPoint> findArchivedSliceNative(Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM network_point np WHERE np.archived = true", nativeQuery = true)
+    long countArchivedNative();
+
     @Query(value = "SELECT * FROM network_point WHERE id = :id AND archived = true", nativeQuery = true)
     Optional<NetworkPoint> findArchivedById(@Param("id") Long id);
 
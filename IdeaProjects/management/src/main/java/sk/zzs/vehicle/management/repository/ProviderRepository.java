@@ -2,6 +2,7 @@ package sk.zzs.vehicle.management.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 import sk.zzs.vehicle.management.entity.Provider;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,6 +32,13 @@ public interface ProviderRepository extends JpaRepository<Provider, Long> {
     )
     Page<Provider> findArchivedNative(Pageable pageable);
 
+    /** Same rows as {@link #findArchivedNative} without the count: one row more tells whether there is a next page */
+    @Query(value = "SELECT * FROM provider WHERE archived = true", nativeQuery = true)
+    Slice<Provider> findArchivedSliceNative(Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM provider WHERE archived = true", nativeQuery = true)
+    long countArchivedNative();
+
     @Query(value = "SELECT * FROM provider WHERE id = :id AND archived = true", nativeQuery = true)
     Optional<Provider> findArchivedById(@Param("id") Long id);
 
@@ -40,6 +49,10 @@ public interface ProviderRepository extends JpaRepository<Provider, Long> {
     @Query(value = "SELECT * FROM provider WHERE id = :id", nativeQuery = true)
     Optional<Provider> findByIdIncludingArchived(@Param("id") Long id);
 
+    /** {@link #findByIdIncludingArchived} for a whole page of archived vehicles at once */
+    @Query(value = "SELECT * FROM provider WHERE id IN (:ids)", nativeQuery = true)
+    List<Provider> findAllByIdIncludingArchived(@Param("ids") Collection<Long> ids);
+
     /**
      * Find all active providers that have zero active network points.
      * Active = archived=false for both Provider and NetworkPoint.
@@ -61,4 +74,18 @@ public interface ProviderRepository extends JpaRepository<Provider, Long> {
      */
     @Query(value = "SELECT * FROM provider WHERE provider_id = :providerId", nativeQuery = true)
     Optional<Provider> findByProviderIdIncludingArchived(@Param("providerId") String providerId);
+
+    /**
+     * Which of the given names are already used by a provider (active or archived).
+     * Used by the dry-run import to predict unique-name violations.
+     */
+    @Query(value = "SELECT name FROM provider WHERE name IN (:names)", nativeQuery = true)
+    List<String> findExistingNamesIncludingArchived(@Param("names") Collection<String> names);
+
+    /**
+     * Which of the given providerIds are already used by a provider (active or archived).
+     * Used by the import to reject duplicate providers a chunk at a time.
+     */
+    @Query(value = "SELECT provider_id FROM provider WHERE provider_id IN (:providerIds)", nativeQuery = true)
+    List<String> findExistingProviderIdsIncludingArchived(@Param("providerIds") Collection<String> providerIds);
 }
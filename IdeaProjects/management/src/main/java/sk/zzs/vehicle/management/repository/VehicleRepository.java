@@ -2,6 +2,7 @@ package sk.zzs.vehicle.management.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import sk.zzs.vehicle.management.entity.Vehicle;
@@ -12,11 +13,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> , JpaSpecificationExecutor<Vehicle> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long> , JpaSpecificationExecutor<Vehicle>, VehicleRepositoryCustom {
 
     // NEW: active-only due to @Where on Vehicle
     Optional<Vehicle> findByVinNum(String vinNum);
@@ -52,12 +54,27 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> , JpaSpe
     )
     Page<Vehicle> findArchivedNative(Pageable pageable);
 
+    /** Same rows as {@link #findArchivedNative} without the count: one row more tells whether there is a next page */
+    @Query(value = "SELECT * FROM vehicle v WHERE v.archived = true", nativeQuery = true)
+    Slice<Vehicle> findArchivedSliceNative(Pageable pageable);
+
+    @Query(value = "SELECT count(*) FROM vehicle v WHERE v.archived = true", nativeQuery = true)
+    long countArchivedNative();
+
+    /** (vehicle_id, path) rows of the given vehicles' files, archived vehicles included */
+    @Query(value = "SELECT vehicle_id, path FROM vehicle_files WHERE vehicle_id IN (:ids)", nativeQuery = true)
+    List<Object[]> findFilePathsByVehicleIds(@Param("ids") Collection<Long> ids);
+
     @Query(value = "SELECT * FROM vehicle WHERE id = :id AND archived = true", nativeQuery = true)
     Optional<Vehicle> findArchivedById(@Param("id") Long id);
 
     @Query("SELECT COUNT(v) FROM Vehicle v WHERE v.provider.id = :providerId")
     long countByProviderId(@Param("providerId") Long providerId);
 
+    /** countByProviderId for several providers at once: rows of [providerId, count] */
+    @Query("SELECT v.provider.id, COUNT(v) FROM Vehicle v WHERE v.provider.id IN :providerIds GROUP BY v.provider.id")
+    List<Object[]> countByProviderIds(@Param("providerIds") Collection<Long> providerIds);
+
     /**
      * Find all active (non-archived) vehicles whose provider assignment has expired.
      * Due to @Where(clause = "archived = false") on Vehicle entity, this will only return active vehicles.
@@ -97,4 +114,18 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> , JpaSpe
     @Query(value = "SELECT COUNT(*) FROM vehicle WHERE license_plate = :licensePlate AND id != :excludeId", nativeQuery = true)
     int countByLicensePlateExcludingId(@Param("licensePlate") String licensePlate, @Param("excludeId") Long excludeId);
 
+    /**
+     * Which of the given VINs already exist in ANY vehicle (active or archived).
+     * Set-based variant of countByVinNumIncludingArchived used by the CSV import, one query per chunk.
+     */
+    @Query(value = "SELECT vin_num FROM vehicle WHERE vin_num IN (:vinNums)", nativeQuery = true)
+    List<String> findExistingVinNumsIncludingArchived(@Param("vinNums") Collection<String> vinNums);
+
+    /**
+     * Which of the given license plates already exist in ANY vehicle (active or archived).
+     * Set-based variant of countByLicensePlateIncludingArchived used by the CSV import, one query per chunk.
+     */
+    @Query(value = "SELECT license_plate FROM vehicle WHERE license_plate IN (:licensePlates)", nativeQuery = true)
+    List<String> findExistingLicensePlatesIncludingArchived(@Param("licensePlates") Collection<String> licensePlates);
+
 }
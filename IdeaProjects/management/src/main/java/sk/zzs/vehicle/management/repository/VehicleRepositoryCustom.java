@@ -0,0 +1,29 @@
+package sk.zzs.vehicle.management.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import sk.zzs.vehicle.management.dto.VehicleCursor;
+import sk.zzs.vehicle.management.dto.VehicleDto;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.util.List;
+
+/** Queries of {@link VehicleRepository} that Spring Data cannot derive */
+public interface VehicleRepositoryCustom {
+
+    /**
+     * Keyset ("seek") paging: up to {@code limit} vehicles matching {@code spec} that come after
+     * {@code cursor} in the cursor's sort order (ties broken by id). Unlike an OFFSET the database
+     * seeks straight to the cursor, so a deep page costs the same as the first one.
+     */
+    List<Vehicle> findAfter(Specification<Vehicle> spec, VehicleCursor cursor, int limit);
+
+    /**
+     * One page of vehicles matching {@code spec} read straight into listing rows: the vehicle
+     * columns and the provider's id and name in a single joined select, without loading entities,
+     * their providers or their file paths ({@code filePaths} is left {@code null}).
+     * One row more than the page is read to tell whether there is a next page.
+     */
+    Slice<VehicleDto> findListingRows(Specification<Vehicle> spec, Pageable pageable);
+}
@@ -0,0 +1,141 @@
+package sk.zzs.vehicle.management.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import sk.zzs.vehicle.management.dto.VehicleCursor;
+import sk.zzs.vehicle.management.dto.VehicleDto;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Spring Data picks this up as the implementation of {@link VehicleRepositoryCustom} */
+public class VehicleRepositoryImpl implements VehicleRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<Vehicle> findAfter(Specification<Vehicle> spec, VehicleCursor cursor, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Vehicle> cq = cb.createQuery(Vehicle.class);
+        Root<Vehicle> root = cq.from(Vehicle.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (spec != null) {
+            Predicate filter = spec.toPredicate(root, cq, cb);
+            if (filter != null) where.add(filter);
+        }
+        if (!cursor.isStart()) {
+            where.add(seek(cb, root, cursor));
+        }
+
+        boolean asc = cursor.direction().isAscending();
+        Path<?> key = root.get(cursor.sort());
+        Path<?> id = root.get("id");
+        cq.select(root).where(where.toArray(Predicate[]::new));
+        if ("id".equals(cursor.sort())) {
+            cq.orderBy(asc ? cb.asc(id) : cb.desc(id));
+        } else {
+            cq.orderBy(asc ? cb.asc(key) : cb.desc(key), asc ? cb.asc(id) : cb.desc(id));
+        }
+
+        return em.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Slice<VehicleDto> findListingRows(Specification<Vehicle> spec, Pageable pageable) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Vehicle> root = cq.from(Vehicle.class);
+
+        if (spec != null) {
+            Predicate filter = spec.toPredicate(root, cq, cb);
+            if (filter != null) cq.where(filter);
+        }
+        Join<?, ?> provider = providerJoin(root);
+        cq.multiselect(
+                root.get("id"), root.get("licensePlate"), root.get("vinNum"), root.get("brand"), root.get("model"),
+                root.get("firstRegistrationDate"), root.get("lastTechnicalCheckDate"), root.get("technicalCheckValidUntil"),
+                provider.get("id"), provider.get("name"),
+                root.get("providerAssignmentStartDate"), root.get("providerAssignmentEndDate"));
+        cq.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        TypedQuery<Tuple> query = em.createQuery(cq);
+        if (pageable.isPaged()) {
+            query.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize() + 1);
+        }
+        List<VehicleDto> rows = query.getResultList().stream().map(VehicleRepositoryImpl::toListingRow).toList();
+
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /** The provider join the filter already made, so the select does not join the table twice */
+    private static Join<?, ?> providerJoin(Root<Vehicle> root) {
+        for (Join<Vehicle, ?> join : root.getJoins()) {
+            if ("provider".equals(join.getAttribute().getName()) && join.getJoinType() == JoinType.LEFT) {
+                return join;
+            }
+        }
+        return root.join("provider", JoinType.LEFT);
+    }
+
+    private static VehicleDto toListingRow(Tuple t) {
+        return VehicleDto.builder()
+                .id(t.get(0, Long.class))
+                .licensePlate(t.get(1, String.class))
+                .vinNum(t.get(2, String.class))
+                .brand(t.get(3, String.class))
+                .model(t.get(4, String.class))
+                .firstRegistrationDate(t.get(5, LocalDate.class))
+                .lastTechnicalCheckDate(t.get(6, LocalDate.class))
+                .technicalCheckValidUntil(t.get(7, LocalDate.class))
+                .providerId(t.get(8, Long.class))
+                .providerName(t.get(9, String.class))
+                .providerAssignmentStartDate(t.get(10, LocalDate.class))
+                .providerAssignmentEndDate(t.get(11, LocalDate.class))
+                .build();
+    }
+
+    /**
+     * Rows after the cursor: {@code key > value OR (key = value AND id > lastId)} for an ascending
+     * listing, mirrored for a descending one. NULL keys sort lowest, as in MariaDB: first when
+     * ascending, last when descending.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate seek(CriteriaBuilder cb, Root<Vehicle> root, VehicleCursor cursor) {
+        boolean asc = cursor.direction().isAscending();
+        Path<Long> id = root.get("id");
+        Predicate afterId = asc ? cb.greaterThan(id, cursor.id()) : cb.lessThan(id, cursor.id());
+        if ("id".equals(cursor.sort())) {
+            return afterId;
+        }
+
+        Path<Comparable> key = root.get(cursor.sort());
+        Comparable value = (Comparable) cursor.value();
+        if (value == null) {
+            Predicate sameKey = cb.and(cb.isNull(key), afterId);
+            return asc ? cb.or(sameKey, cb.isNotNull(key)) : sameKey;
+        }
+        Predicate sameKey = cb.and(cb.equal(key, value), afterId);
+        return asc
+                ? cb.or(cb.greaterThan(key, value), sameKey)
+                : cb.or(cb.lessThan(key, value), sameKey, cb.isNull(key));
+    }
+}
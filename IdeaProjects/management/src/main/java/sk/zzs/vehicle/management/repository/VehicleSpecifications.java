@@ -5,9 +5,9 @@ import org.springframework.data.jpa.domain.Specification;
 import sk.zzs.vehicle.management.dto.VehicleFilter;
 import sk.zzs.vehicle.management.entity.Vehicle;
 import sk.zzs.vehicle.management.entity.Provider;
-import sk.zzs.vehicle.management.entity.NetworkPoint;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.Locale;
 
 public final class VehicleSpecifications {
@@ -15,9 +15,18 @@ public final class VehicleSpecifications {
     private VehicleSpecifications() {}
 
     public static Specification<Vehicle> withFilter(VehicleFilter f) {
+        return withFilter(f, null);
+    }
+
+    /**
+     * @param textCandidates ids of the only vehicles that can match {@code q} (from the search
+     *                       index), or {@code null} to look at every vehicle
+     */
+    public static Specification<Vehicle> withFilter(VehicleFilter f, Collection<Long> textCandidates) {
         Specification<Vehicle> spec = Specification.where(null);
         if (f == null) return spec;
 
+        if (notBlank(f.q()) && textCandidates != null) spec = spec.and(idIn(textCandidates));
         if (notBlank(f.q()))              spec = spec.and(textSearch(f.q()));
         if (notBlank(f.provider()))       spec = spec.and(providerMatches(f.provider()));
         if (f.stkValidFrom() != null)     spec = spec.and(stkFrom(f.stkValidFrom()));
@@ -33,27 +42,29 @@ public final class VehicleSpecifications {
     /** Case-insensitive LIKE pattern */
     private static String like(String q) { return "%" + q.toLowerCase(Locale.ROOT) + "%"; }
 
-    /** Full-text-ish search across common fields (LP/brand/model/provider/network point). */
+    /** Full-text-ish search across common fields (LP/VIN/brand/model/provider). */
     private static Specification<Vehicle> textSearch(String q) {
         return (root, cq, cb) -> {
             var like = like(q);
 
-            // joins (LEFT so nulls are allowed)
+            // join (LEFT so nulls are allowed); Vehicle has no network point relation to search
             var provider = root.join("provider", JoinType.LEFT);
-            var point    = root.join("networkPoint", JoinType.LEFT);
 
             return cb.or(
                     cb.like(cb.lower(root.get("licensePlate")), like),
+                    cb.like(cb.lower(root.get("vinNum")), like),
                     cb.like(cb.lower(root.get("brand")), like),
                     cb.like(cb.lower(root.get("model")), like),
                     cb.like(cb.lower(provider.get("name")), like),
-                    cb.like(cb.lower(provider.get("providerId")), like),
-                    cb.like(cb.lower(point.get("name")), like),
-                    cb.like(cb.lower(point.get("code")), like)
+                    cb.like(cb.lower(provider.get("providerId")), like)
             );
         };
     }
 
+    private static Specification<Vehicle> idIn(Collection<Long> ids) {
+        return (root, cq, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
     /** Provider filter: match either providerId (exact, case-insensitive) OR name (ILIKE). */
     private static Specification<Vehicle> providerMatches(String providerText) {
         return (root, cq, cb) -> {
@@ -1,232 +1,371 @@
 package sk.zzs.vehicle.management.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.dto.ImportPosition;
 import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.dto.ImportRow;
 import sk.zzs.vehicle.management.dto.NetworkPointDto;
 import sk.zzs.vehicle.management.dto.ProviderDto;
 import sk.zzs.vehicle.management.dto.VehicleDto;
+import sk.zzs.vehicle.management.enumer.ImportErrorType;
+import sk.zzs.vehicle.management.enumer.ImportMode;
 import sk.zzs.vehicle.management.enumer.NetworkPointType;
+import sk.zzs.vehicle.management.repository.ImportCheckpointRepository;
+import sk.zzs.vehicle.management.repository.NetworkPointRepository;
+import sk.zzs.vehicle.management.repository.ProviderRepository;
+import sk.zzs.vehicle.management.repository.VehicleRepository;
+import sk.zzs.vehicle.management.util.Checksums;
+import sk.zzs.vehicle.management.util.CsvSectionReader;
+import sk.zzs.vehicle.management.util.ImportRecord;
+import sk.zzs.vehicle.management.util.SectionReader;
 
 import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class DataImportService {
 
-    private final ProviderService providerService;
-    private final VehicleService vehicleService;
-    private final NetworkPointService networkPointService;
+    private final ProviderRepository providerRepository;
+    private final VehicleRepository vehicleRepository;
+    private final ImportBatchWriter importBatchWriter;
+    private final ImportCheckpointRepository importCheckpointRepository;
+    private final NetworkPointRepository networkPointRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final ImportErrorReportService importErrorReportService;
+
+    /** Rows written per transaction */
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
 
     private final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("[yyyy-MM-dd][M/d/yyyy]");
 
-    public ImportResultSummary importAllEntities(MultipartFile file) {
-        ImportResultSummary summary = new ImportResultSummary();
+    /** Parsed chunks allowed to wait for the writer, bounds the memory of the pipeline */
+    private static final int PARSE_AHEAD_CHUNKS = 2;
 
-        try {
-            System.out.println("!!!!!!!!!!! START READ SECTIONS !!!!!!!!!!!!");
+    /** Threads parsing and validating records, 0 = one per core */
+    @Value("${import.parse-parallelism:0}")
+    private int parseParallelism;
 
-            // Read raw content with encoding fallbacks and normalize line endings
-            String content = readContentWithFallbacks(file)
-                    .replace("\r\n", "\n")
-                    .replace("\r", "\n");
+    private ForkJoinPool parsePool;
 
-            // Ensure section markers are on their own lines (handles markers followed by commas/content)
-            content = normalizeSectionMarkers(content);
+    /** Second writer of multi-file jobs, one thread per running job at most */
+    private ExecutorService sectionPool;
 
-            // Split to lines
-            List<String> lines = Arrays.asList(content.split("\n", -1));
+    /** Section markers the import knows, in the order they depend on each other */
+    private static final String[] SECTIONS = {"Providers", "Vehicles", "NetworkPoints"};
 
-            // Split into sections
-            Map<String, List<String>> sections = splitSections(lines);
+    @PostConstruct
+    void startPools() {
+        int parallelism = parseParallelism > 0 ? parseParallelism : Runtime.getRuntime().availableProcessors();
+        parsePool = new ForkJoinPool(parallelism);
+        AtomicInteger threadNo = new AtomicInteger();
+        sectionPool = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "import-section-" + threadNo.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
 
-            System.out.println("==========================================");
-            System.out.println(lines);
-            System.out.println("==========================================");
-            System.out.println(sections);
-            System.out.println("==========================================");
+    @PreDestroy
+    void stopPools() {
+        parsePool.shutdownNow();
+        sectionPool.shutdownNow();
+    }
 
-            if (sections.containsKey("Providers")) {
-                System.out.println("!!!!!!!!!!! START READ Providers !!!!!!!!!!!!");
-                processProviders(sections.get("Providers"), summary);
-            }
-            if (sections.containsKey("Vehicles")) {
-                System.out.println("!!!!!!!!!!! START READ Vehicles !!!!!!!!!!!!");
-                processVehicles(sections.get("Vehicles"), summary);
-            }
-            if (sections.containsKey("NetworkPoints")) {
-                System.out.println("!!!!!!!!!!! START READ NetworkPoints !!!!!!!!!!!!");
-                processNetworkPoints(sections.get("NetworkPoints"), summary);
+    /**
+     * @param restart import the file from the start even if an earlier run of the same file left checkpoints
+     * @param dryRun  only validate: run every check and return the summary the import would produce, write nothing
+     * @param mode    CREATE rejects rows whose key exists, UPSERT updates those records when the row changed them
+     */
+    public ImportResultSummary importAllEntities(MultipartFile file, boolean restart, boolean dryRun, ImportMode mode) {
+        ImportContext ctx = new ImportContext();
+        ctx.setRestart(restart);
+        ctx.setDryRun(dryRun);
+        ctx.setMode(mode);
+        if (SectionReader.isXlsx(file.getOriginalFilename())) {
+            // a workbook is read from a file, its parts are not in stream order
+            ImportFile spooled = null;
+            try {
+                spooled = ImportFile.spool(file.getInputStream(), file.getOriginalFilename());
+                ctx.setFileHash(spooled.fileHash());
+                importAll(spooled.open(null), ctx);
+            } catch (IOException e) {
+                ctx.getSummary().addError("Failed to read workbook: " + e.getMessage());
+            } finally {
+                if (spooled != null) spooled.delete();
             }
-
+            return ctx.getSummary();
+        }
+        try (InputStream in = file.getInputStream()) {
+            ctx.setFileHash(Checksums.sha256Hex(in));
         } catch (IOException e) {
-            summary.addError("Failed to read CSV: " + e.getMessage());
+            ctx.getSummary().addError("Failed to read CSV: " + e.getMessage());
+            return ctx.getSummary();
         }
-
-        return summary;
+        try (InputStream in = file.getInputStream()) {
+            importAll(in, ctx);
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read CSV: " + e.getMessage());
+        }
+        return ctx.getSummary();
     }
 
-    // ---------- helpers: reading, normalization, splitting ----------
-
-    private String readContentWithFallbacks(MultipartFile file) throws IOException {
-        byte[] bytes = file.getBytes();
+    /** Import a whole sectioned CSV stream, see {@link #importAll(SectionReader, ImportContext)} */
+    public void importAll(InputStream in, ImportContext ctx) {
+        SectionReader reader;
+        try {
+            reader = CsvSectionReader.open(in);
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read CSV: " + e.getMessage());
+            return;
+        }
+        importAll(reader, ctx);
+    }
 
-        List<Charset> tryCharsets = List.of(
-                StandardCharsets.UTF_8,
-                Charset.forName("windows-1250"),
-                Charset.forName("ISO-8859-2"),
-                StandardCharsets.ISO_8859_1
-        );
+    /**
+     * Import a whole sectioned file (CSV or workbook) into {@code ctx}'s summary; closes the reader.
+     * Stops after the current chunk once {@link ImportContext#requestCancel()} was called.
+     *
+     * When the context carries the file's hash, every chunk stores a checkpoint and sections
+     * (or the part of a section) already written by an earlier run of the same file are skipped.
+     *
+     * A dry run reads everything inside one read-only REPEATABLE_READ transaction, so all checks
+     * see the same snapshot of the DB, and replaces every write with in-memory bookkeeping.
+     *
+     * In UPSERT mode rows are matched to existing records by providerId, VIN and network point code.
+     * A row whose content hash equals the stored record's is only counted as unchanged; the others
+     * are updated (with UPDATE logs) or created, so re-importing an export touches only what changed.
+     */
+    public void importAll(SectionReader reader, ImportContext ctx) {
+        importErrorReportService.attach(ctx.getSummary());
+        try (reader) {
+            if (!ctx.isDryRun()) {
+                doImportAll(reader, ctx);
+                return;
+            }
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setReadOnly(true);
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            snapshot.executeWithoutResult(status -> {
+                doImportAll(reader, ctx);
+                if (!ctx.isCancelRequested()) addCapacityWarnings(ctx);
+            });
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to close import file: " + e.getMessage());
+        } finally {
+            ctx.getSummary().closeErrorReport();
+        }
+    }
 
-        for (Charset cs : tryCharsets) {
-            try {
-                return new String(bytes, cs);
-            } catch (Exception ignored) {}
-        }
-        return new String(bytes, StandardCharsets.ISO_8859_1);
-    }
-
-    private String normalizeSectionMarkers(String content) {
-        // Put a newline BEFORE any marker that isn’t already at line start
-        content = content.replaceAll("(?<!^)\\s*\\[(Providers|Vehicles|NetworkPoints)]", "\n[$1]");
-        // Put a newline AFTER marker (and drop trailing commas on that same line)
-        content = content.replaceAll("\\[(Providers|Vehicles|NetworkPoints)]\\s*,*", "[$1]\n");
-        // Collapse multiple blank lines
-        content = content.replaceAll("\\n{2,}", "\n");
-        return content.trim();
-    }
-
-    private Map<String, List<String>> splitSections(List<String> lines) {
-        Map<String, List<String>> result = new LinkedHashMap<>();
-        String current = null;
-        List<String> buffer = new ArrayList<>();
-
-        for (String raw : lines) {
-            if (raw == null) continue;
-            String line = raw.trim();
-            if (line.isEmpty()) continue;
-
-            // Detect a marker even if original line had extra commas after it
-            String firstToken = line.split(",", 2)[0].trim();
-            boolean marker = firstToken.startsWith("[") && firstToken.endsWith("]");
-            if (marker) {
-                // flush previous
-                if (current != null && !buffer.isEmpty()) {
-                    List<String> cleaned = dropCommaOnlyLines(buffer);
-                    if (!cleaned.isEmpty()) {
-                        result.put(current, cleaned);
+    /**
+     * Import the files of one job, providers first. The [Providers] sections of all files are
+     * imported one file after the other; then the [Vehicles] and the [NetworkPoints] sections,
+     * which only look providers up, are imported at the same time by two writers on their own
+     * threads. Each writer reads the files again and skips the sections of the other ones.
+     *
+     * While both writers run, provider states are not refreshed chunk by chunk but once for all
+     * touched providers after both finished. Every file keeps its own checkpoints.
+     *
+     * A dry run reads the files one after the other in a single snapshot transaction.
+     *
+     * @param bytesRead counts the bytes the passes read, for the job's progress
+     */
+    public void importFiles(List<ImportFile> files, ImportContext ctx, AtomicLong bytesRead) {
+        importErrorReportService.attach(ctx.getSummary());
+        try {
+            if (ctx.isDryRun()) {
+                TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+                snapshot.setReadOnly(true);
+                snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+                snapshot.executeWithoutResult(status -> {
+                    ctx.addExistingProviders(providerRepository.findAll());
+                    for (String section : SECTIONS) {
+                        importPass(files, ctx, section, bytesRead);
                     }
-                    buffer.clear();
-                }
-                current = firstToken.substring(1, firstToken.length() - 1);
-                continue;
+                    if (!ctx.isCancelRequested()) addCapacityWarnings(ctx);
+                });
+                return;
             }
 
-            if (current != null) {
-                buffer.add(raw);
+            ctx.addExistingProviders(providerRepository.findAll());
+            if (ctx.isRestart()) {
+                for (ImportFile file : files) {
+                    importCheckpointRepository.deleteByFileHash(ctx.forFile(file.fileHash()).getCheckpointKey());
+                }
             }
-        }
+            importPass(files, ctx, "Providers", bytesRead);
 
-        if (current != null && !buffer.isEmpty()) {
-            List<String> cleaned = dropCommaOnlyLines(buffer);
-            if (!cleaned.isEmpty()) {
-                result.put(current, cleaned);
+            ctx.deferProviderStates();
+            CompletableFuture<Void> vehicles = CompletableFuture.runAsync(
+                    new DelegatingSecurityContextRunnable(() -> importPass(files, ctx, "Vehicles", bytesRead)),
+                    sectionPool);
+            try {
+                importPass(files, ctx, "NetworkPoints", bytesRead);
+            } finally {
+                try {
+                    vehicles.join();
+                } finally {
+                    refreshDeferredProviderStates(ctx);
+                }
             }
+        } finally {
+            ctx.getSummary().closeErrorReport();
         }
-
-        return result;
     }
 
-    private List<String> dropCommaOnlyLines(List<String> rows) {
-        List<String> out = new ArrayList<>();
-        for (String s : rows) {
-            String t = s.trim();
-            if (!t.isEmpty() && !t.replace(",", "").trim().isEmpty()) {
-                out.add(s);
+    /** Import one kind of section from every file that has it */
+    private void importPass(List<ImportFile> files, ImportContext ctx, String section, AtomicLong bytesRead) {
+        for (ImportFile file : files) {
+            if (ctx.isCancelRequested()) return;
+            if (!file.sections().contains(section)) continue;
+
+            ImportContext fileCtx = ctx.forFile(file.fileHash());
+            // checkpoints of a restarted job were dropped before the first pass
+            if (!fileCtx.isRestart()) readCheckpoints(fileCtx);
+            try (SectionReader reader = file.open(bytesRead)) {
+                importSections(reader, fileCtx, Set.of(section));
+            } catch (IOException e) {
+                ctx.getSummary().addError("Failed to read " + file.name() + ": " + e.getMessage());
             }
         }
-        return out;
     }
 
-    // ---------- robust CSV parser for a section (header cleaned) ----------
-
-    /**
-     * Build a CSVParser for one section, cleaning the header by removing trailing empty columns.
-     * This avoids "A header name is missing" when the header has extra commas.
-     */
-    private CSVParser buildParserForSection(List<String> lines) throws IOException {
-        if (lines == null || lines.isEmpty()) {
-            // empty section → create parser with no rows
-            return CSVParser.parse("", CSVFormat.DEFAULT.withHeader().withSkipHeaderRecord());
+    private void refreshDeferredProviderStates(ImportContext ctx) {
+        Set<Long> providerIds = ctx.getDeferredProviderStates();
+        if (providerIds.isEmpty()) return;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(
+                    status -> importBatchWriter.refreshProviderStates(new HashSet<>(providerIds)));
+        } catch (Exception e) {
+            ctx.getSummary().addError("Could not refresh provider states: " + e.getMessage());
         }
+    }
 
-        // 1) Take raw header line
-        String headerLine = lines.get(0);
+    private void doImportAll(SectionReader reader, ImportContext ctx) {
+        // One bulk read of the existing providers, rows are then resolved in memory
+        ctx.addExistingProviders(providerRepository.findAll());
 
-        // 2) Parse that single line to get header fields honoring quotes
-        List<String> headerFields = new ArrayList<>();
-        try (CSVParser headerParser = CSVParser.parse(headerLine, CSVFormat.DEFAULT)) {
-            for (CSVRecord rec : headerParser) {
-                for (String v : rec) headerFields.add(v == null ? "" : v.trim());
+        if (ctx.isRestart()) {
+            // a dry run with restart validates the whole file but leaves the checkpoints alone
+            if (!ctx.isDryRun() && ctx.getCheckpointKey() != null) {
+                importCheckpointRepository.deleteByFileHash(ctx.getCheckpointKey());
             }
+        } else {
+            readCheckpoints(ctx);
         }
+        importSections(reader, ctx, Set.of(SECTIONS));
+    }
 
-        // 3) Remove trailing empty header names (caused by extra commas)
-        while (!headerFields.isEmpty() && (headerFields.get(headerFields.size() - 1).isBlank())) {
-            headerFields.remove(headerFields.size() - 1);
+    private void readCheckpoints(ImportContext ctx) {
+        String checkpointKey = ctx.getCheckpointKey();
+        if (checkpointKey != null) {
+            ctx.addCheckpoints(importCheckpointRepository.findByFileHash(checkpointKey));
         }
+    }
 
-        if (headerFields.isEmpty()) {
-            throw new IllegalArgumentException("Section header is empty or invalid: '" + headerLine + "'");
+    /** Import the sections named in {@code sections}, the others are skipped like unknown ones */
+    private void importSections(SectionReader reader, ImportContext ctx, Set<String> sections) {
+        try {
+            String section;
+            while (!ctx.isCancelRequested() && (section = reader.nextSection()) != null) {
+                // every marker counts, so section indexes (and checkpoints) match between passes
+                ctx.startSection(section);
+                if (!sections.contains(section)) continue;
+                switch (section) {
+                    case "Providers" -> processProviders(reader, ctx);
+                    case "Vehicles" -> processVehicles(reader, ctx);
+                    case "NetworkPoints" -> processNetworkPoints(reader, ctx);
+                    default -> {
+                        // unknown section: its lines are skipped by the next nextSection() call
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read import file: " + e.getMessage());
         }
-
-        // 4) Re-join the section content and parse with explicit header, skipping the first row
-        String sectionBody = String.join("\n", lines);
-        CSVFormat fmt = CSVFormat.DEFAULT
-                .withHeader(headerFields.toArray(new String[0]))
-                .withSkipHeaderRecord(true)
-                .withTrim();
-
-        return CSVParser.parse(sectionBody, fmt);
     }
 
     // ---------- per-section processors ----------
 
-    private void processProviders(List<String> lines, ImportResultSummary summary) {
-        try (CSVParser parser = buildParserForSection(lines)) {
-            for (CSVRecord r : parser) {
-                try {
+    private void processProviders(SectionReader reader, ImportContext ctx) {
+        Set<String> chunkKeys = new HashSet<>();
+        processSection(reader, ctx, new SectionSpec<ProviderDto>(
+                "Providers", "providers", "Provider", "Provider section failed: ",
+                r -> {
                     ProviderDto dto = new ProviderDto();
                     dto.setProviderId(get(r, "providerId"));
                     dto.setName(get(r, "name"));
                     dto.setEmail(get(r, "email"));
                     dto.setAddress(get(r, "address")); // keep if ProviderDto supports it
-
-                    providerService.createProvider(dto);
-                    summary.incImported("providers");
-                } catch (Exception e) {
-                    summary.addError("Provider row " + r.getRecordNumber() + ": " + e.getMessage());
-                    summary.incSkipped("providers");
-                }
-            }
-        } catch (Exception e) {
-            summary.addError("Provider section failed: " + e.getMessage());
-        }
+                    return dto;
+                },
+                dto -> {
+                    // the DB is checked for the whole chunk at once in rejectExistingProviders
+                    if (!isBlank(dto.getProviderId()) && !chunkKeys.add(dto.getProviderId())) {
+                        throw duplicateProviderId(dto.getProviderId());
+                    }
+                },
+                chunk -> {
+                    if (ctx.isUpsert()) {
+                        upsertProviders(chunk, ctx);
+                    } else if (ctx.isDryRun()) {
+                        rejectExistingProviders(chunk, ctx.getSummary());
+                        simulateProviders(chunk, ctx);
+                    } else {
+                        rejectExistingProviders(chunk, ctx.getSummary());
+                        flush(chunk, rows -> writeProviders(rows, ctx, ctx.positionAfter(rows)), "providers", "Provider", ctx.getSummary());
+                    }
+                    // a dry run keeps the keys, so duplicates are found across the whole file
+                    if (ctx.isDryRun()) return;
+                    chunkKeys.clear();
+                }));
     }
 
-    private void processVehicles(List<String> lines, ImportResultSummary summary) {
-        try (CSVParser parser = buildParserForSection(lines)) {
-            for (CSVRecord r : parser) {
-                try {
+    private void processVehicles(SectionReader reader, ImportContext ctx) {
+        Set<String> chunkVins = new HashSet<>();
+        Set<String> chunkPlates = new HashSet<>();
+        processSection(reader, ctx, new SectionSpec<VehicleDto>(
+                "Vehicles", "vehicles", "Vehicle", "Vehicle section failed: ",
+                r -> {
                     VehicleDto dto = new VehicleDto();
                     dto.setVinNum(get(r, "vin_num"));
                     dto.setBrand(get(r, "brand"));
@@ -235,27 +374,32 @@ public class DataImportService {
                     dto.setFirstRegistrationDate(parseDateSafe(get(r, "first_registration_date")));
                     dto.setTechnicalCheckValidUntil(parseDateSafe(get(r, "technical_check_valid_until")));
 
-                    // Parse provider_id as number (never use Long.getLong)
-                    Long provId = providerService.getByProviderID(get(r, "provider_id")).getId();
-                    dto.setProviderId(provId);
+                    dto.setProviderId(ctx.resolveProviderId(get(r, "provider_id")));
                     dto.setProviderAssignmentEndDate(parseDateSafe(get(r, "provider_assignment_end_date")));
 
-                    vehicleService.registerVehicle(dto);
-                    summary.incImported("vehicles");
-                } catch (Exception e) {
-                    summary.addError("Vehicle row " + r.getRecordNumber() + ": " + e.getMessage());
-                    summary.incSkipped("vehicles");
-                }
-            }
-        } catch (Exception e) {
-            summary.addError("Vehicle section failed: " + e.getMessage());
-        }
+                    validateNewVehicle(dto);
+                    return dto;
+                },
+                dto -> checkVehicleNotInChunk(dto, chunkVins, chunkPlates),
+                chunk -> {
+                    if (ctx.isUpsert()) {
+                        upsertVehicles(chunk, ctx);
+                    } else if (ctx.isDryRun()) {
+                        simulateVehicles(chunk, ctx);
+                    } else {
+                        flushVehicles(chunk, ctx);
+                    }
+                    if (ctx.isDryRun()) return;
+                    chunkVins.clear();
+                    chunkPlates.clear();
+                }));
     }
 
-    private void processNetworkPoints(List<String> lines, ImportResultSummary summary) {
-        try (CSVParser parser = buildParserForSection(lines)) {
-            for (CSVRecord r : parser) {
-                try {
+    private void processNetworkPoints(SectionReader reader, ImportContext ctx) {
+        Set<String> chunkCodes = new HashSet<>();
+        processSection(reader, ctx, new SectionSpec<NetworkPointDto>(
+                "NetworkPoints", "networkPoints", "NetworkPoint", "NetworkPoints section failed: ",
+                r -> {
                     NetworkPointDto dto = new NetworkPointDto();
                     dto.setCode(get(r, "code"));
                     dto.setName(get(r, "name"));
@@ -263,27 +407,625 @@ public class DataImportService {
 
                     dto.setValidTo(parseDateSafe(get(r, "valid_to")));
 
-                    Long provId = providerService.getByProviderID(get(r, "provider_id")).getId();
-                    dto.setQueueProviderId(provId);
+                    dto.setQueueProviderId(ctx.resolveProviderId(get(r, "provider_id")));
 
                     dto.setProviderRegistrationEndDate(parseDateSafe(get(r, "provider_end_date")));
 
+                    // For bulk imports we bypass capacity checks, so only the create rules apply
+                    validateNewNetworkPoint(dto);
+                    return dto;
+                },
+                dto -> {
+                    if (dto.getCode() != null && !chunkCodes.add(dto.getCode())) {
+                        throw new ResponseStatusException(HttpStatus.CONFLICT,
+                                "NetworkPoint with code '" + dto.getCode() + "' is listed more than once");
+                    }
+                },
+                chunk -> {
+                    if (ctx.isUpsert()) {
+                        upsertNetworkPoints(chunk, ctx);
+                    } else if (ctx.isDryRun()) {
+                        simulateNetworkPoints(chunk, ctx);
+                    } else {
+                        flush(chunk, rows -> importBatchWriter.insertNetworkPoints(rows, ctx.positionAfter(rows),
+                                ctx.getDeferredProviderStates()),
+                                "networkPoints", "NetworkPoint", ctx.getSummary());
+                    }
+                    if (ctx.isDryRun()) return;
+                    chunkCodes.clear();
+                }));
+    }
+
+    /**
+     * How one section is imported.
+     *
+     * @param parse turns a record into a validated DTO; runs on the parse pool, so it may only
+     *              read shared state (the provider map is not modified while a section is parsed)
+     * @param check checks that depend on earlier rows (duplicates); runs on the importing thread in record order
+     * @param write persists a chunk and resets the state used by {@code check}
+     */
+    private record SectionSpec<T>(String marker, String section, String label, String failurePrefix,
+                                  Function<ImportRecord, T> parse, Consumer<T> check,
+                                  Consumer<List<ImportRow<T>>> write) {}
 
-                    // For bulk imports we bypass capacity checks; set false if you want enforcement.
-                    networkPointService.createNetworkPoint(dto, true);
-                    summary.incImported("networkPoints");
+    /** Outcome of parsing one record: either a DTO or the failure */
+    private record ParsedRow<T>(long recordNumber, T dto, Exception error) {}
+
+    /**
+     * Read a section and import it chunk by chunk.
+     *
+     * The importing thread only splits the section into chunks of records; every chunk is parsed and
+     * validated in parallel on the parse pool, up to {@link #PARSE_AHEAD_CHUNKS} chunks ahead. The importing
+     * thread then takes the parsed chunks in file order, runs the order dependent checks and writes them,
+     * so DB writes stay sequential and errors keep their row numbers and order.
+     */
+    private <T> void processSection(SectionReader reader, ImportContext ctx, SectionSpec<T> spec) {
+        ImportResultSummary summary = ctx.getSummary();
+        long resumeAfter = resumePoint(ctx, spec.marker());
+        if (resumeAfter == Long.MAX_VALUE) return;
+        long lastRecord = resumeAfter;
+        boolean sectionDone = false;
+        Deque<ForkJoinTask<List<ParsedRow<T>>>> parsing = new ArrayDeque<>();
+        List<ImportRecord> records = new ArrayList<>(chunkSize);
+
+        try (Stream<ImportRecord> rows = reader.records()) {
+            for (Iterator<ImportRecord> it = rows.iterator(); it.hasNext(); ) {
+                ImportRecord r = it.next();
+                lastRecord = r.getRecordNumber();
+                if (lastRecord <= resumeAfter) continue; // written by an earlier run of this file
+                records.add(r);
+                if (records.size() >= chunkSize) {
+                    parsing.add(parseAsync(records, spec));
+                    records = new ArrayList<>(chunkSize);
+                    if (parsing.size() > PARSE_AHEAD_CHUNKS) {
+                        writeParsed(parsing.poll().join(), spec, ctx);
+                        if (ctx.isCancelRequested()) break;
+                    }
+                }
+            }
+            sectionDone = !ctx.isCancelRequested();
+        } catch (Exception e) {
+            summary.addError(spec.failurePrefix() + e.getMessage());
+        }
+
+        // Rows read so far are written also when the section broke off in the middle
+        try {
+            if (!records.isEmpty()) parsing.add(parseAsync(records, spec));
+            while (!parsing.isEmpty() && !ctx.isCancelRequested()) {
+                writeParsed(parsing.poll().join(), spec, ctx);
+            }
+        } catch (Exception e) {
+            summary.addError(spec.failurePrefix() + e.getMessage());
+            sectionDone = false;
+        } finally {
+            parsing.forEach(task -> task.cancel(true));
+        }
+        if (sectionDone && !ctx.isCancelRequested() && !ctx.isDryRun()) markSectionCompleted(ctx, lastRecord);
+    }
+
+    private <T> ForkJoinTask<List<ParsedRow<T>>> parseAsync(List<ImportRecord> records, SectionSpec<T> spec) {
+        return parsePool.submit(() -> records.parallelStream()
+                .map(r -> {
+                    try {
+                        return new ParsedRow<>(r.getRecordNumber(), spec.parse().apply(r), null);
+                    } catch (Exception e) {
+                        return new ParsedRow<T>(r.getRecordNumber(), null, e);
+                    }
+                })
+                .toList());
+    }
+
+    private <T> void writeParsed(List<ParsedRow<T>> parsed, SectionSpec<T> spec, ImportContext ctx) {
+        ImportResultSummary summary = ctx.getSummary();
+        List<ImportRow<T>> chunk = new ArrayList<>(parsed.size());
+        for (ParsedRow<T> row : parsed) {
+            Exception error = row.error();
+            if (error == null) {
+                try {
+                    spec.check().accept(row.dto());
+                    chunk.add(new ImportRow<>(row.recordNumber(), row.dto()));
                 } catch (Exception e) {
-                    summary.addError("NetworkPoint row " + r.getRecordNumber() + ": " + e.getMessage());
-                    summary.incSkipped("networkPoints");
+                    error = e;
+                }
+            }
+            if (error != null) {
+                summary.rowFailed(spec.section(), spec.label(), row.recordNumber(), errorType(error), error.getMessage());
+            }
+            ctx.rowProcessed(spec.section());
+        }
+        spec.write().accept(chunk);
+    }
+
+    // ---------- dry run: the writes replaced by bookkeeping ----------
+
+    /** Provider rows that would be inserted; names must be unique in the provider table */
+    private void simulateProviders(List<ImportRow<ProviderDto>> chunk, ImportContext ctx) {
+        Set<String> names = new HashSet<>();
+        for (ImportRow<ProviderDto> row : chunk) {
+            if (!isBlank(row.dto().getName())) names.add(row.dto().getName());
+        }
+        Set<String> takenNames = dedupKeys(names.isEmpty()
+                ? List.of() : providerRepository.findExistingNamesIncludingArchived(names));
+        takenNames.addAll(ctx.getDryRunProviderNames());
+
+        for (ImportRow<ProviderDto> row : chunk) {
+            ProviderDto p = row.dto();
+            if (isBlank(p.getProviderId())) {
+                rejectSimulated(ctx, "providers", "Provider", row, ImportErrorType.MISSING_VALUE, "providerId is required");
+                continue;
+            }
+            if (isBlank(p.getName())) {
+                rejectSimulated(ctx, "providers", "Provider", row, ImportErrorType.MISSING_VALUE, "name is required");
+                continue;
+            }
+            if (!takenNames.add(dedupKey(p.getName()))) {
+                rejectSimulated(ctx, "providers", "Provider", row, ImportErrorType.DUPLICATE,
+                        "a provider named '" + p.getName() + "' already exists");
+                continue;
+            }
+            ctx.getDryRunProviderNames().add(dedupKey(p.getName()));
+            ctx.registerProvider(p.getProviderId(), ctx.nextDryRunProviderId(), p.getName());
+            ctx.getSummary().incImported("providers");
+        }
+    }
+
+    private void simulateVehicles(List<ImportRow<VehicleDto>> chunk, ImportContext ctx) {
+        rejectExistingVehicles(chunk, ctx.getSummary());
+        for (ImportRow<VehicleDto> row : chunk) {
+            VehicleDto v = row.dto();
+            String missing = isBlank(v.getLicensePlate()) ? "license_plate"
+                    : isBlank(v.getVinNum()) ? "vin_num"
+                    : isBlank(v.getBrand()) ? "brand"
+                    : isBlank(v.getModel()) ? "model" : null;
+            if (missing != null) {
+                rejectSimulated(ctx, "vehicles", "Vehicle", row, ImportErrorType.MISSING_VALUE, missing + " is required");
+                continue;
+            }
+            ctx.planVehicle(v.getProviderId());
+            ctx.getSummary().incImported("vehicles");
+        }
+    }
+
+    private void simulateNetworkPoints(List<ImportRow<NetworkPointDto>> chunk, ImportContext ctx) {
+        Set<String> codes = new HashSet<>();
+        for (ImportRow<NetworkPointDto> row : chunk) {
+            if (!isBlank(row.dto().getCode())) codes.add(row.dto().getCode());
+        }
+        Set<String> takenCodes = dedupKeys(codes.isEmpty()
+                ? List.of() : networkPointRepository.findExistingCodesIncludingArchived(codes));
+
+        for (ImportRow<NetworkPointDto> row : chunk) {
+            NetworkPointDto np = row.dto();
+            if (isBlank(np.getCode()) || isBlank(np.getName())) {
+                rejectSimulated(ctx, "networkPoints", "NetworkPoint", row, ImportErrorType.MISSING_VALUE,
+                        (isBlank(np.getCode()) ? "code" : "name") + " is required");
+                continue;
+            }
+            if (takenCodes.contains(dedupKey(np.getCode()))) {
+                rejectSimulated(ctx, "networkPoints", "NetworkPoint", row, ImportErrorType.DUPLICATE,
+                        "a network point with code '" + np.getCode() + "' already exists");
+                continue;
+            }
+            ctx.planNetworkPoint(np.getQueueProviderId());
+            ctx.getSummary().incImported("networkPoints");
+        }
+    }
+
+    /** A row the DB would refuse on insert (unique / not-null constraint) */
+    private void rejectSimulated(ImportContext ctx, String section, String label, ImportRow<?> row,
+                                 ImportErrorType type, String reason) {
+        ctx.getSummary().rowFailed(section, label, row.recordNumber(), type, "would be rejected by the database, " + reason);
+    }
+
+    /**
+     * The import bypasses the capacity check of NetworkPointService.ensureProviderCapacity, so the
+     * dry run reports where the rule (vehicles >= ceil(1.3 x network points)) would be broken
+     * once the file is in, counting active DB rows plus the rows the file adds.
+     */
+    private void addCapacityWarnings(ImportContext ctx) {
+        Set<Long> providerIds = ctx.getPlannedNetworkPoints().keySet();
+        List<Long> existingIds = providerIds.stream().filter(id -> id != null && id > 0).toList();
+        Map<Long, Long> vehicles = new HashMap<>();
+        Map<Long, Long> networkPoints = new HashMap<>();
+        if (!existingIds.isEmpty()) {
+            vehicleRepository.countByProviderIds(existingIds)
+                    .forEach(r -> vehicles.put((Long) r[0], (Long) r[1]));
+            networkPointRepository.countByProviderIds(existingIds)
+                    .forEach(r -> networkPoints.put((Long) r[0], (Long) r[1]));
+        }
+
+        for (Long id : providerIds) {
+            if (id == null) continue;
+            long nn = networkPoints.getOrDefault(id, 0L) + ctx.getPlannedNetworkPoints().get(id);
+            long have = vehicles.getOrDefault(id, 0L) + ctx.getPlannedVehicles().getOrDefault(id, 0L);
+            long required = (long) Math.ceil(1.3 * nn);
+            if (have < required) {
+                ctx.getSummary().addWarning("Provider " + ctx.providerLabel(id) + " would have only " + have
+                        + " vehicles but should have " + required + " vehicles for " + nn + " network points.");
+            }
+        }
+    }
+
+    // ---------- upsert: match rows to stored records ----------
+
+    private void upsertProviders(List<ImportRow<ProviderDto>> chunk, ImportContext ctx) {
+        ImportPosition position = ctx.positionAfter(chunk);
+        Map<String, List<ImportBatchWriter.StoredRow>> stored = groupByKey(
+                importBatchWriter.findStoredProviders(keysOf(chunk, ProviderDto::getProviderId)));
+        List<ImportRow<ProviderDto>> updates = planUpsert(chunk, stored, ProviderDto::getProviderId,
+                ImportBatchWriter::contentHash, (dto, target) -> target.archived()
+                        ? "Provider '" + dto.getProviderId() + "' is archived and cannot be updated by an import" : null,
+                ProviderDto::setId, "providers", "Provider", ctx);
+
+        if (ctx.isDryRun()) {
+            simulateProviders(chunk, ctx);
+            updates.forEach(row -> ctx.getSummary().incUpdated("providers"));
+            return;
+        }
+        flush(chunk, rows -> writeProviders(rows, ctx, null), "providers", "Provider", ctx.getSummary());
+        flush(updates, importBatchWriter::updateProviders, "providers", "Provider", ctx.getSummary(),
+                ctx.getSummary()::incUpdated);
+        saveChunkCheckpoint(ctx, position);
+    }
+
+    /**
+     * Vehicles are matched by VIN among the active vehicles; a VIN only found on archived vehicles
+     * goes the create path and is rejected there like in CREATE mode.
+     */
+    private void upsertVehicles(List<ImportRow<VehicleDto>> chunk, ImportContext ctx) {
+        ImportPosition position = ctx.positionAfter(chunk);
+        Map<String, List<ImportBatchWriter.StoredRow>> stored = groupByKey(
+                importBatchWriter.findStoredVehicles(keysOf(chunk, VehicleDto::getVinNum)).stream()
+                        .filter(s -> !s.archived()).toList());
+        List<ImportRow<VehicleDto>> updates = planUpsert(chunk, stored, VehicleDto::getVinNum,
+                ImportBatchWriter::contentHash, (dto, target) -> stored.get(dedupKey(dto.getVinNum())).size() > 1
+                        ? "VIN '" + dto.getVinNum() + "' belongs to more than one active vehicle, update it in the application" : null,
+                VehicleDto::setId, "vehicles", "Vehicle", ctx);
+        rejectPlatesOfOtherVehicles(updates, ctx.getSummary());
+
+        if (ctx.isDryRun()) {
+            simulateVehicles(chunk, ctx);
+            for (ImportRow<VehicleDto> row : updates) {
+                Long from = stored.get(dedupKey(row.dto().getVinNum())).get(0).providerId();
+                if (!row.dto().getProviderId().equals(from)) {
+                    ctx.planVehicle(row.dto().getProviderId());
+                    ctx.getPlannedVehicles().merge(from, -1L, Long::sum);
                 }
+                ctx.getSummary().incUpdated("vehicles");
+            }
+            return;
+        }
+        rejectExistingVehicles(chunk, ctx.getSummary());
+        flush(chunk, rows -> importBatchWriter.insertVehicles(rows, null, ctx.getDeferredProviderStates()),
+                "vehicles", "Vehicle", ctx.getSummary());
+        flush(updates, rows -> importBatchWriter.updateVehicles(rows, ctx.getDeferredProviderStates()),
+                "vehicles", "Vehicle", ctx.getSummary(), ctx.getSummary()::incUpdated);
+        saveChunkCheckpoint(ctx, position);
+    }
+
+    /** Network points keep their owner and queue, only name, type and validTo are updated */
+    private void upsertNetworkPoints(List<ImportRow<NetworkPointDto>> chunk, ImportContext ctx) {
+        ImportPosition position = ctx.positionAfter(chunk);
+        Map<String, List<ImportBatchWriter.StoredRow>> stored = groupByKey(
+                importBatchWriter.findStoredNetworkPoints(keysOf(chunk, NetworkPointDto::getCode)));
+        List<ImportRow<NetworkPointDto>> updates = planUpsert(chunk, stored, NetworkPointDto::getCode,
+                ImportBatchWriter::contentHash, (dto, target) -> {
+                    if (target.archived()) {
+                        return "NetworkPoint '" + dto.getCode() + "' is archived and cannot be updated by an import";
+                    }
+                    if (!dto.getQueueProviderId().equals(target.providerId())) {
+                        return "NetworkPoint '" + dto.getCode() + "' belongs to provider '" + ctx.providerLabel(target.providerId())
+                                + "', providers are changed through the provider queue, not by import";
+                    }
+                    return null;
+                },
+                NetworkPointDto::setId, "networkPoints", "NetworkPoint", ctx);
+
+        if (ctx.isDryRun()) {
+            simulateNetworkPoints(chunk, ctx);
+            updates.forEach(row -> ctx.getSummary().incUpdated("networkPoints"));
+            return;
+        }
+        flush(chunk, rows -> importBatchWriter.insertNetworkPoints(rows, null, ctx.getDeferredProviderStates()),
+                "networkPoints", "NetworkPoint", ctx.getSummary());
+        flush(updates, importBatchWriter::updateNetworkPoints, "networkPoints", "NetworkPoint", ctx.getSummary(),
+                ctx.getSummary()::incUpdated);
+        saveChunkCheckpoint(ctx, position);
+    }
+
+    /**
+     * Split an upsert chunk by comparing every row with the stored record of its key.
+     * Rows without a stored record stay in {@code chunk} (to be created), rows equal to their
+     * record are counted as unchanged and rows {@code conflict} objects to are reported; both are
+     * removed from {@code chunk}.
+     *
+     * @param conflict why the row may not update its record, or {@code null}
+     * @return rows that change their record, with the record's id set on the DTO
+     */
+    private <T> List<ImportRow<T>> planUpsert(List<ImportRow<T>> chunk, Map<String, List<ImportBatchWriter.StoredRow>> stored,
+                                              Function<T, String> key, Function<T, String> hash,
+                                              BiFunction<T, ImportBatchWriter.StoredRow, String> conflict,
+                                              BiConsumer<T, Long> setId,
+                                              String section, String label, ImportContext ctx) {
+        ImportResultSummary summary = ctx.getSummary();
+        List<ImportRow<T>> updates = new ArrayList<>();
+        chunk.removeIf(row -> {
+            T dto = row.dto();
+            String k = key.apply(dto);
+            List<ImportBatchWriter.StoredRow> matches = isBlank(k) ? null : stored.get(dedupKey(k));
+            if (matches == null) return false;
+
+            ImportBatchWriter.StoredRow target = matches.get(0);
+            String error = conflict.apply(dto, target);
+            if (error != null) {
+                summary.rowFailed(section, label, row.recordNumber(), ImportErrorType.CONFLICT, error);
+            } else if (target.contentHash().equals(hash.apply(dto))) {
+                summary.incUnchanged(section);
+            } else {
+                setId.accept(dto, target.id());
+                updates.add(row);
             }
+            return true;
+        });
+        return updates;
+    }
+
+    /** An updated vehicle may keep its plate but not take one another vehicle (active or archived) uses */
+    private void rejectPlatesOfOtherVehicles(List<ImportRow<VehicleDto>> updates, ImportResultSummary summary) {
+        Map<String, Long> owners = new HashMap<>();
+        importBatchWriter.findVehicleIdsByLicensePlate(keysOf(updates, VehicleDto::getLicensePlate))
+                .forEach((plate, id) -> owners.put(dedupKey(plate), id));
+        if (owners.isEmpty()) return;
+
+        updates.removeIf(row -> {
+            VehicleDto dto = row.dto();
+            Long owner = isBlank(dto.getLicensePlate()) ? null : owners.get(dedupKey(dto.getLicensePlate()));
+            if (owner == null || owner.equals(dto.getId())) return false;
+            // Same wording as VehicleService.editVehicle
+            summary.rowFailed("vehicles", "Vehicle", row.recordNumber(), ImportErrorType.DUPLICATE,
+                    "Vehicle with license plate '" + dto.getLicensePlate()
+                            + "' already exists (active or archived). Cannot use duplicate license plate.");
+            return true;
+        });
+    }
+
+    private static <T> Set<String> keysOf(List<ImportRow<T>> rows, Function<T, String> key) {
+        Set<String> keys = new HashSet<>();
+        for (ImportRow<T> row : rows) {
+            String k = key.apply(row.dto());
+            if (!isBlank(k)) keys.add(k);
+        }
+        return keys;
+    }
+
+    /** Stored rows by case-insensitive key, the DB collation matches keys the same way */
+    private static Map<String, List<ImportBatchWriter.StoredRow>> groupByKey(List<ImportBatchWriter.StoredRow> rows) {
+        return rows.stream().collect(Collectors.groupingBy(r -> dedupKey(r.key())));
+    }
+
+    // ---------- checkpoints ----------
+
+    /**
+     * Where the current section starts for this run: after the rows an earlier run of the same
+     * file already wrote, or {@link Long#MAX_VALUE} when that run finished the whole section.
+     */
+    private long resumePoint(ImportContext ctx, String section) {
+        long resumeAfter = ctx.resumeAfter();
+        if (resumeAfter == Long.MAX_VALUE) {
+            ctx.getSummary().addWarning(section + ": already imported from this file, skipped (use restart=true to import it again)");
+        } else if (resumeAfter > 0) {
+            ctx.getSummary().addWarning(section + ": resumed after row " + resumeAfter + " written by an earlier run of this file");
+        }
+        return resumeAfter;
+    }
+
+    /** Upsert chunks are written in several transactions, the checkpoint follows the last of them */
+    private void saveChunkCheckpoint(ImportContext ctx, ImportPosition position) {
+        try {
+            importBatchWriter.saveCheckpoint(position);
         } catch (Exception e) {
-            summary.addError("NetworkPoints section failed: " + e.getMessage());
+            ctx.getSummary().addError("Could not store import checkpoint: " + e.getMessage());
         }
     }
 
+    private void markSectionCompleted(ImportContext ctx, long lastRecord) {
+        try {
+            importBatchWriter.saveCheckpoint(ctx.sectionCompleted(lastRecord));
+        } catch (Exception e) {
+            ctx.getSummary().addError("Could not store import checkpoint: " + e.getMessage());
+        }
+    }
+
+    // ---------- validation (same rules as the create endpoints) ----------
+
+    private void validateNewVehicle(VehicleDto dto) {
+        if (dto.getProviderId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provider is required when creating a vehicle");
+        }
+        if (dto.getProviderAssignmentEndDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Provider assignment end date is required");
+        }
+    }
+
+    /**
+     * VIN / license plate must not appear earlier in this chunk; the DB is checked for the
+     * whole chunk at once in rejectExistingVehicles (earlier chunks are already committed)
+     */
+    private void checkVehicleNotInChunk(VehicleDto dto, Set<String> chunkVins, Set<String> chunkPlates) {
+        if (!isBlank(dto.getVinNum()) && chunkVins.contains(dedupKey(dto.getVinNum()))) {
+            throw duplicateVin(dto.getVinNum());
+        }
+        if (!isBlank(dto.getLicensePlate()) && chunkPlates.contains(dedupKey(dto.getLicensePlate()))) {
+            throw duplicatePlate(dto.getLicensePlate());
+        }
+
+        if (!isBlank(dto.getVinNum())) chunkVins.add(dedupKey(dto.getVinNum()));
+        if (!isBlank(dto.getLicensePlate())) chunkPlates.add(dedupKey(dto.getLicensePlate()));
+    }
+
+    /**
+     * Drop the rows of a vehicle chunk whose VIN or license plate already exists in any vehicle
+     * (active or archived). One IN query for the VINs and one for the plates of the whole chunk,
+     * instead of two COUNT queries per row.
+     */
+    private void rejectExistingVehicles(List<ImportRow<VehicleDto>> chunk, ImportResultSummary summary) {
+        if (chunk.isEmpty()) return;
+
+        Set<String> vins = new HashSet<>();
+        Set<String> plates = new HashSet<>();
+        for (ImportRow<VehicleDto> row : chunk) {
+            if (!isBlank(row.dto().getVinNum())) vins.add(row.dto().getVinNum());
+            if (!isBlank(row.dto().getLicensePlate())) plates.add(row.dto().getLicensePlate());
+        }
+        Set<String> existingVins = dedupKeys(vins.isEmpty()
+                ? List.of() : vehicleRepository.findExistingVinNumsIncludingArchived(vins));
+        Set<String> existingPlates = dedupKeys(plates.isEmpty()
+                ? List.of() : vehicleRepository.findExistingLicensePlatesIncludingArchived(plates));
+        if (existingVins.isEmpty() && existingPlates.isEmpty()) return;
+
+        chunk.removeIf(row -> {
+            VehicleDto dto = row.dto();
+            ResponseStatusException conflict;
+            if (!isBlank(dto.getVinNum()) && existingVins.contains(dedupKey(dto.getVinNum()))) {
+                conflict = duplicateVin(dto.getVinNum());
+            } else if (!isBlank(dto.getLicensePlate()) && existingPlates.contains(dedupKey(dto.getLicensePlate()))) {
+                conflict = duplicatePlate(dto.getLicensePlate());
+            } else {
+                return false;
+            }
+            summary.rowFailed("vehicles", "Vehicle", row.recordNumber(), ImportErrorType.DUPLICATE, conflict.getMessage());
+            return true;
+        });
+    }
+
+    /**
+     * Drop the rows of a provider chunk whose providerId is already used by a provider (active or
+     * archived), with one IN query for the whole chunk. An upsert updates those providers instead.
+     */
+    private void rejectExistingProviders(List<ImportRow<ProviderDto>> chunk, ImportResultSummary summary) {
+        Set<String> providerIds = new HashSet<>();
+        for (ImportRow<ProviderDto> row : chunk) {
+            if (!isBlank(row.dto().getProviderId())) providerIds.add(row.dto().getProviderId());
+        }
+        if (providerIds.isEmpty()) return;
+        Set<String> existing = dedupKeys(providerRepository.findExistingProviderIdsIncludingArchived(providerIds));
+        if (existing.isEmpty()) return;
+
+        chunk.removeIf(row -> {
+            String providerId = row.dto().getProviderId();
+            if (isBlank(providerId) || !existing.contains(dedupKey(providerId))) return false;
+            summary.rowFailed("providers", "Provider", row.recordNumber(), ImportErrorType.DUPLICATE,
+                    duplicateProviderId(providerId).getMessage());
+            return true;
+        });
+    }
+
+    // Same rule and wording as ProviderService.createProvider
+    private static ResponseStatusException duplicateProviderId(String providerId) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Poskytovateľ s ID \"" + providerId + "\" už existuje. Nemožno vytvoriť duplicitný záznam.");
+    }
+
+    // Same wording as VehicleService.registerVehicle
+    private static ResponseStatusException duplicateVin(String vin) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Vehicle with VIN number '" + vin + "' already exists (active or archived). Cannot register duplicate VIN.");
+    }
+
+    private static ResponseStatusException duplicatePlate(String plate) {
+        return new ResponseStatusException(HttpStatus.CONFLICT,
+                "Vehicle with license plate '" + plate + "' already exists (active or archived). Cannot register duplicate license plate.");
+    }
+
+    /** The DB compares VINs and plates case-insensitively, so the in-memory sets do too */
+    private static String dedupKey(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> dedupKeys(Collection<String> values) {
+        Set<String> keys = new HashSet<>();
+        for (String v : values) {
+            if (v != null) keys.add(dedupKey(v));
+        }
+        return keys;
+    }
+
+    private void validateNewNetworkPoint(NetworkPointDto dto) {
+        if (dto.getValidTo() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "NetworkPoint validTo date is required");
+        }
+        if (dto.getQueueProviderId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Exactly one provider is required when creating a NetworkPoint");
+        }
+        if (dto.getProviderRegistrationEndDate() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Provider registration end date is required");
+        }
+    }
+
+    // ---------- chunk writes ----------
+
+    private void flushVehicles(List<ImportRow<VehicleDto>> chunk, ImportContext ctx) {
+        rejectExistingVehicles(chunk, ctx.getSummary());
+        flush(chunk, rows -> importBatchWriter.insertVehicles(rows, ctx.positionAfter(rows), ctx.getDeferredProviderStates()),
+                "vehicles", "Vehicle", ctx.getSummary());
+    }
+
+    private void writeProviders(List<ImportRow<ProviderDto>> rows, ImportContext ctx, ImportPosition position) {
+        Map<String, Long> ids = importBatchWriter.insertProviders(rows, position);
+        for (ImportRow<ProviderDto> row : rows) {
+            ProviderDto p = row.dto();
+            ctx.registerProvider(p.getProviderId(), ids.get(p.getProviderId()), p.getName());
+        }
+    }
+
+    /**
+     * Write a chunk in one transaction. A constraint violation rolls back the whole chunk,
+     * in that case the rows are retried one by one so only the offending rows are reported.
+     */
+    private <T> void flush(List<ImportRow<T>> chunk, Consumer<List<ImportRow<T>>> writer,
+                           String section, String label, ImportResultSummary summary) {
+        flush(chunk, writer, section, label, summary, summary::incImported);
+    }
+
+    /** @param written counter a successfully written row goes to (imported / updated) */
+    private <T> void flush(List<ImportRow<T>> chunk, Consumer<List<ImportRow<T>>> writer,
+                           String section, String label, ImportResultSummary summary, Consumer<String> written) {
+        if (chunk.isEmpty()) return;
+        try {
+            writer.accept(chunk);
+            chunk.forEach(row -> written.accept(section));
+        } catch (Exception batchFailure) {
+            for (ImportRow<T> row : chunk) {
+                try {
+                    writer.accept(List.of(row));
+                    written.accept(section);
+                } catch (Exception e) {
+                    summary.rowFailed(section, label, row.recordNumber(), errorType(e), e.getMessage());
+                }
+            }
+        }
+        chunk.clear();
+    }
+
     // ---------- small utils ----------
 
+    /** Error type of a rejected row from what the validation or the DB threw */
+    private static ImportErrorType errorType(Exception e) {
+        if (e instanceof ResponseStatusException rse) {
+            return switch (rse.getStatusCode().value()) {
+                case 409 -> ImportErrorType.DUPLICATE;
+                case 404 -> ImportErrorType.NOT_FOUND;
+                case 400 -> ImportErrorType.MISSING_VALUE;
+                default -> ImportErrorType.GENERAL;
+            };
+        }
+        if (e instanceof DataAccessException) return ImportErrorType.DATABASE;
+        if (e instanceof IllegalArgumentException) return ImportErrorType.INVALID_VALUE;
+        return ImportErrorType.GENERAL;
+    }
+
     private LocalDate parseDateSafe(String s) {
         if (s == null || s.isBlank()) return null;
         try {
@@ -302,11 +1044,15 @@ public class DataImportService {
         }
     }
 
-    private static String get(CSVRecord r, String col) {
-        return r.isMapped(col) ? safeTrim(r.get(col)) : null;
+    private static String get(ImportRecord r, String col) {
+        return safeTrim(r.get(col));
     }
 
     private static String safeTrim(String s) {
         return s == null ? null : s.trim();
     }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
 }
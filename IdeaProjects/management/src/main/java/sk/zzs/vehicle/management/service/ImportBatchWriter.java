@@ -0,0 +1,526 @@
+package sk.zzs.vehicle.management.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import sk.zzs.vehicle.management.dto.ImportPosition;
+import sk.zzs.vehicle.management.dto.ImportRow;
+import sk.zzs.vehicle.management.dto.NetworkPointDto;
+import sk.zzs.vehicle.management.dto.ProviderDto;
+import sk.zzs.vehicle.management.dto.VehicleDto;
+import sk.zzs.vehicle.management.enumer.NetworkPointType;
+import sk.zzs.vehicle.management.enumer.OperationType;
+import sk.zzs.vehicle.management.enumer.ProviderState;
+import sk.zzs.vehicle.management.util.Checksums;
+import sk.zzs.vehicle.management.util.CurrentUserProvider;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write engine used by the CSV import.
+ *
+ * Each call writes one chunk of already validated rows in a single transaction:
+ * entities are inserted with JDBC batches, their CREATE audit rows are copied with one
+ * INSERT ... SELECT per chunk (instead of one listener insert per entity), and provider
+ * states are recomputed once per touched provider at the end of the chunk.
+ *
+ * If any row of the chunk violates a DB constraint the whole chunk rolls back;
+ * the caller then retries the rows one by one to find the offending one.
+ *
+ * The import checkpoint passed along is stored in the same transaction, so after a crash
+ * it points exactly at the last chunk that made it to the DB.
+ *
+ * For upsert imports it also loads the stored version of the rows' records ({@link StoredRow})
+ * and updates the records that changed, writing UPDATE logs the same set-based way.
+ */
+@Service
+public class ImportBatchWriter {
+
+    static final String DEFAULT_PROVIDER_PASSWORD = "default123";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbc;
+
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+
+    /**
+     * Insert providers and their CREATE logs.
+     *
+     * @return database id of every inserted provider keyed by its providerId
+     */
+    @Transactional
+    public Map<String, Long> insertProviders(List<ImportRow<ProviderDto>> rows, ImportPosition position) {
+        if (rows.isEmpty()) return Map.of();
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        List<String> keys = new ArrayList<>(rows.size());
+        for (ImportRow<ProviderDto> row : rows) {
+            ProviderDto p = row.dto();
+            params.add(new Object[]{
+                    p.getName(), p.getEmail(), DEFAULT_PROVIDER_PASSWORD, p.getProviderId(), p.getAddress(),
+                    ProviderState.DISABLED.name()
+            });
+            keys.add(p.getProviderId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("""
+                INSERT INTO provider (name, email, password, provider_id, address, state, archived)
+                VALUES (?, ?, ?, ?, ?, ?, false)
+                """, params);
+
+        jdbc.update("""
+                INSERT INTO provider_log (provider_id, name, email, provider_id_field, address, state, archived,
+                                          vehicle_count, network_point_count, author, timestamp, operation)
+                SELECT p.id, p.name, p.email, p.provider_id, p.address, p.state, p.archived,
+                       0, 0, :author, :ts, :op
+                  FROM provider p
+                 WHERE p.provider_id IN (:keys)
+                """, auditParams(OperationType.CREATE).addValue("keys", keys));
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbc.query("SELECT id, provider_id FROM provider WHERE provider_id IN (:keys)",
+                new MapSqlParameterSource("keys", keys),
+                rs -> { ids.put(rs.getString("provider_id"), rs.getLong("id")); });
+        List<VehicleSearchIndex.NewProvider> indexed = new ArrayList<>(rows.size());
+        for (ImportRow<ProviderDto> row : rows) {
+            ProviderDto p = row.dto();
+            indexed.add(new VehicleSearchIndex.NewProvider(ids.get(p.getProviderId()), p.getName(), p.getProviderId()));
+        }
+        vehicleSearchIndex.indexNewProviders(indexed);
+
+        saveCheckpoint(position);
+        return ids;
+    }
+
+    /**
+     * Insert vehicles (provider assignment starts today) and their CREATE logs,
+     * then refresh the state of the providers they were assigned to.
+     *
+     * @param deferredStates when not {@code null} the providers are added to it instead of refreshed
+     */
+    @Transactional
+    public void insertVehicles(List<ImportRow<VehicleDto>> rows, ImportPosition position, Set<Long> deferredStates) {
+        if (rows.isEmpty()) return;
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> params = new ArrayList<>(rows.size());
+        List<String> plates = new ArrayList<>(rows.size());
+        Set<Long> providerIds = new LinkedHashSet<>();
+        for (ImportRow<VehicleDto> row : rows) {
+            VehicleDto v = row.dto();
+            params.add(new Object[]{
+                    v.getLicensePlate(), v.getVinNum(), v.getBrand(), v.getModel(),
+                    date(v.getFirstRegistrationDate()), date(v.getLastTechnicalCheckDate()),
+                    date(v.getTechnicalCheckValidUntil()), v.getProviderId(),
+                    date(today), date(v.getProviderAssignmentEndDate())
+            });
+            plates.add(v.getLicensePlate());
+            providerIds.add(v.getProviderId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("""
+                INSERT INTO vehicle (license_plate, vin_num, brand, model, first_registration_date,
+                                     last_technical_check_date, technical_check_valid_until, provider_id,
+                                     provider_assignment_start_date, provider_assignment_end_date, archived)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false)
+                """, params);
+
+        // license_plate is unique, so it identifies the rows just inserted
+        jdbc.update("""
+                INSERT INTO vehicle_log (vehicle_id, license_plate, vin_num, brand, model, first_registration_date,
+                                         last_technical_check_date, technical_check_valid_until,
+                                         provider_id, provider_name, author, timestamp, operation)
+                SELECT v.id, v.license_plate, v.vin_num, v.brand, v.model, v.first_registration_date,
+                       v.last_technical_check_date, v.technical_check_valid_until,
+                       v.provider_id, p.name, :author, :ts, :op
+                  FROM vehicle v
+                  LEFT JOIN provider p ON p.id = v.provider_id
+                 WHERE v.license_plate IN (:keys)
+                """, auditParams(OperationType.CREATE).addValue("keys", plates));
+        Map<String, Long> ids = findVehicleIdsByLicensePlate(plates);
+        List<VehicleSearchIndex.NewVehicle> indexed = new ArrayList<>(rows.size());
+        for (ImportRow<VehicleDto> row : rows) {
+            VehicleDto v = row.dto();
+            indexed.add(new VehicleSearchIndex.NewVehicle(ids.get(v.getLicensePlate()), v.getLicensePlate(),
+                    v.getVinNum(), v.getBrand(), v.getModel(), v.getProviderId()));
+        }
+        vehicleSearchIndex.indexNewVehicles(indexed);
+
+        refreshProviderStates(providerIds, deferredStates);
+        saveCheckpoint(position);
+    }
+
+    /**
+     * Insert network points (valid from today, owner = queue provider), put the queue provider
+     * at position 0 of each queue, write CREATE logs and refresh the providers' state.
+     *
+     * @param deferredStates when not {@code null} the providers are added to it instead of refreshed
+     */
+    @Transactional
+    public void insertNetworkPoints(List<ImportRow<NetworkPointDto>> rows, ImportPosition position,
+                                    Set<Long> deferredStates) {
+        if (rows.isEmpty()) return;
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> params = new ArrayList<>(rows.size());
+        List<String> codes = new ArrayList<>(rows.size());
+        Set<Long> providerIds = new LinkedHashSet<>();
+        for (ImportRow<NetworkPointDto> row : rows) {
+            NetworkPointDto np = row.dto();
+            params.add(new Object[]{
+                    np.getCode(), np.getName(), np.getType() != null ? np.getType().name() : null,
+                    date(today), date(np.getValidTo()), np.getQueueProviderId()
+            });
+            codes.add(np.getCode());
+            providerIds.add(np.getQueueProviderId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("""
+                INSERT INTO network_point (code, name, type, valid_from, valid_to, provider_id, archived)
+                VALUES (?, ?, ?, ?, ?, ?, false)
+                """, params);
+
+        Map<String, Long> idsByCode = new HashMap<>();
+        jdbc.query("SELECT id, code FROM network_point WHERE code IN (:keys)",
+                new MapSqlParameterSource("keys", codes),
+                rs -> { idsByCode.put(rs.getString("code"), rs.getLong("id")); });
+
+        // Queue initialization: the only registration is current, position 0, starting today
+        List<Object[]> registrations = new ArrayList<>(rows.size());
+        for (ImportRow<NetworkPointDto> row : rows) {
+            NetworkPointDto np = row.dto();
+            registrations.add(new Object[]{
+                    idsByCode.get(np.getCode()), np.getQueueProviderId(),
+                    date(today), date(np.getProviderRegistrationEndDate())
+            });
+        }
+        jdbc.getJdbcTemplate().batchUpdate("""
+                INSERT INTO provider_network_point_registration
+                       (network_point_id, provider_id, registration_start_date, registration_end_date,
+                        queue_position, current)
+                VALUES (?, ?, ?, ?, 0, true)
+                """, registrations);
+
+        jdbc.update("""
+                INSERT INTO network_point_log (network_point_id, code, name, type, valid_from, valid_to,
+                                               provider_id, provider_name, archived, author, timestamp, operation)
+                SELECT np.id, np.code, np.name, np.type, np.valid_from, np.valid_to,
+                       np.provider_id, p.name, np.archived, :author, :ts, :op
+                  FROM network_point np
+                  LEFT JOIN provider p ON p.id = np.provider_id
+                 WHERE np.code IN (:keys)
+                """, auditParams(OperationType.CREATE).addValue("keys", codes));
+
+        refreshProviderStates(providerIds, deferredStates);
+        saveCheckpoint(position);
+    }
+
+    // ---------- upsert ----------
+
+    /**
+     * Stored version of a record an upsert row may update.
+     *
+     * @param key         business key as stored (providerId, VIN or code)
+     * @param contentHash hash of the importable columns, same function as for the incoming row
+     * @param providerId  vehicle: assigned provider, network point: owner; {@code null} for providers
+     */
+    public record StoredRow(String key, long id, String contentHash, Long providerId, boolean archived) {}
+
+    /** Columns of a provider an import row carries; equal hashes mean the row changes nothing */
+    public static String contentHash(ProviderDto p) {
+        return Checksums.contentHash(p.getName(), p.getEmail(), p.getAddress());
+    }
+
+    public static String contentHash(VehicleDto v) {
+        return Checksums.contentHash(v.getLicensePlate(), v.getBrand(), v.getModel(), v.getFirstRegistrationDate(),
+                v.getTechnicalCheckValidUntil(), v.getProviderId(), v.getProviderAssignmentEndDate());
+    }
+
+    public static String contentHash(NetworkPointDto np) {
+        return Checksums.contentHash(np.getName(), np.getType(), np.getValidTo());
+    }
+
+    /** Providers (active or archived) with one of the given providerIds */
+    @Transactional(readOnly = true)
+    public List<StoredRow> findStoredProviders(Collection<String> providerIds) {
+        if (providerIds.isEmpty()) return List.of();
+        return jdbc.query("SELECT id, provider_id, name, email, address, archived FROM provider WHERE provider_id IN (:keys)",
+                new MapSqlParameterSource("keys", providerIds), (rs, i) -> {
+                    ProviderDto p = new ProviderDto();
+                    p.setName(rs.getString("name"));
+                    p.setEmail(rs.getString("email"));
+                    p.setAddress(rs.getString("address"));
+                    return new StoredRow(rs.getString("provider_id"), rs.getLong("id"), contentHash(p),
+                            null, rs.getBoolean("archived"));
+                });
+    }
+
+    /** Vehicles (active or archived) with one of the given VINs */
+    @Transactional(readOnly = true)
+    public List<StoredRow> findStoredVehicles(Collection<String> vins) {
+        if (vins.isEmpty()) return List.of();
+        return jdbc.query("""
+                SELECT id, vin_num, license_plate, brand, model, first_registration_date, technical_check_valid_until,
+                       provider_id, provider_assignment_end_date, archived
+                  FROM vehicle
+                 WHERE vin_num IN (:keys)
+                """, new MapSqlParameterSource("keys", vins), (rs, i) -> {
+                    VehicleDto v = new VehicleDto();
+                    v.setLicensePlate(rs.getString("license_plate"));
+                    v.setBrand(rs.getString("brand"));
+                    v.setModel(rs.getString("model"));
+                    v.setFirstRegistrationDate(localDate(rs.getDate("first_registration_date")));
+                    v.setTechnicalCheckValidUntil(localDate(rs.getDate("technical_check_valid_until")));
+                    v.setProviderId(rs.getObject("provider_id", Long.class));
+                    v.setProviderAssignmentEndDate(localDate(rs.getDate("provider_assignment_end_date")));
+                    return new StoredRow(rs.getString("vin_num"), rs.getLong("id"), contentHash(v),
+                            v.getProviderId(), rs.getBoolean("archived"));
+                });
+    }
+
+    /** Network points (active or archived) with one of the given codes */
+    @Transactional(readOnly = true)
+    public List<StoredRow> findStoredNetworkPoints(Collection<String> codes) {
+        if (codes.isEmpty()) return List.of();
+        return jdbc.query("SELECT id, code, name, type, valid_to, provider_id, archived FROM network_point WHERE code IN (:keys)",
+                new MapSqlParameterSource("keys", codes), (rs, i) -> {
+                    NetworkPointDto np = new NetworkPointDto();
+                    np.setName(rs.getString("name"));
+                    np.setType(rs.getString("type") != null ? NetworkPointType.valueOf(rs.getString("type")) : null);
+                    np.setValidTo(localDate(rs.getDate("valid_to")));
+                    return new StoredRow(rs.getString("code"), rs.getLong("id"), contentHash(np),
+                            rs.getObject("provider_id", Long.class), rs.getBoolean("archived"));
+                });
+    }
+
+    /** Id of every vehicle (active or archived) using one of the given license plates, keyed by plate */
+    @Transactional(readOnly = true)
+    public Map<String, Long> findVehicleIdsByLicensePlate(Collection<String> plates) {
+        Map<String, Long> ids = new HashMap<>();
+        if (plates.isEmpty()) return ids;
+        jdbc.query("SELECT id, license_plate FROM vehicle WHERE license_plate IN (:keys)",
+                new MapSqlParameterSource("keys", plates),
+                rs -> { ids.put(rs.getString("license_plate"), rs.getLong("id")); });
+        return ids;
+    }
+
+    /** Update name, email and address of existing providers (dto id set) and write their UPDATE logs */
+    @Transactional
+    public void updateProviders(List<ImportRow<ProviderDto>> rows) {
+        if (rows.isEmpty()) return;
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ImportRow<ProviderDto> row : rows) {
+            ProviderDto p = row.dto();
+            params.add(new Object[]{p.getName(), p.getEmail(), p.getAddress(), p.getId()});
+            ids.add(p.getId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("UPDATE provider SET name = ?, email = ?, address = ? WHERE id = ?", params);
+
+        jdbc.update("""
+                INSERT INTO provider_log (provider_id, name, email, provider_id_field, address, state, archived,
+                                          vehicle_count, network_point_count, author, timestamp, operation)
+                SELECT p.id, p.name, p.email, p.provider_id, p.address, p.state, p.archived,
+                       (SELECT COUNT(*) FROM vehicle v WHERE v.provider_id = p.id AND v.archived = false),
+                       (SELECT COUNT(*) FROM network_point np WHERE np.provider_id = p.id AND np.archived = false),
+                       :author, :ts, :op
+                  FROM provider p
+                 WHERE p.id IN (:ids)
+                """, auditParams(OperationType.UPDATE).addValue("ids", ids));
+        vehicleSearchIndex.indexProviders(ids);
+    }
+
+    /**
+     * Update existing vehicles (dto id set) from their rows. A vehicle that moves to another provider
+     * starts its new assignment today, like a reassignment in the UI. Writes UPDATE logs and refreshes
+     * the state of both the old and the new providers (or adds them to {@code deferredStates}).
+     */
+    @Transactional
+    public void updateVehicles(List<ImportRow<VehicleDto>> rows, Set<Long> deferredStates) {
+        if (rows.isEmpty()) return;
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ImportRow<VehicleDto> row : rows) ids.add(row.dto().getId());
+        Map<Long, Long> oldProviders = new HashMap<>();
+        jdbc.query("SELECT id, provider_id FROM vehicle WHERE id IN (:ids)", new MapSqlParameterSource("ids", ids),
+                rs -> { oldProviders.put(rs.getLong("id"), rs.getObject("provider_id", Long.class)); });
+
+        LocalDate today = LocalDate.now();
+        List<Object[]> params = new ArrayList<>(rows.size());
+        Set<Long> providerIds = new LinkedHashSet<>(oldProviders.values());
+        for (ImportRow<VehicleDto> row : rows) {
+            VehicleDto v = row.dto();
+            boolean reassigned = !v.getProviderId().equals(oldProviders.get(v.getId()));
+            params.add(new Object[]{
+                    v.getLicensePlate(), v.getBrand(), v.getModel(), date(v.getFirstRegistrationDate()),
+                    date(v.getTechnicalCheckValidUntil()), v.getProviderId(),
+                    reassigned ? date(today) : null, date(v.getProviderAssignmentEndDate()), v.getId()
+            });
+            providerIds.add(v.getProviderId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("""
+                UPDATE vehicle
+                   SET license_plate = ?, brand = ?, model = ?, first_registration_date = ?,
+                       technical_check_valid_until = ?, provider_id = ?,
+                       provider_assignment_start_date = COALESCE(?, provider_assignment_start_date),
+                       provider_assignment_end_date = ?
+                 WHERE id = ?
+                """, params);
+
+        jdbc.update("""
+                INSERT INTO vehicle_log (vehicle_id, license_plate, vin_num, brand, model, first_registration_date,
+                                         last_technical_check_date, technical_check_valid_until,
+                                         provider_id, provider_name, author, timestamp, operation)
+                SELECT v.id, v.license_plate, v.vin_num, v.brand, v.model, v.first_registration_date,
+                       v.last_technical_check_date, v.technical_check_valid_until,
+                       v.provider_id, p.name, :author, :ts, :op
+                  FROM vehicle v
+                  LEFT JOIN provider p ON p.id = v.provider_id
+                 WHERE v.id IN (:ids)
+                """, auditParams(OperationType.UPDATE).addValue("ids", ids));
+        vehicleSearchIndex.indexVehicles(ids);
+
+        refreshProviderStates(providerIds, deferredStates);
+    }
+
+    /**
+     * Update name, type and validTo of existing network points (dto id set) and write their UPDATE logs.
+     * The owner and the provider queue are left alone, they change through the queue operations.
+     */
+    @Transactional
+    public void updateNetworkPoints(List<ImportRow<NetworkPointDto>> rows) {
+        if (rows.isEmpty()) return;
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ImportRow<NetworkPointDto> row : rows) {
+            NetworkPointDto np = row.dto();
+            params.add(new Object[]{
+                    np.getName(), np.getType() != null ? np.getType().name() : null, date(np.getValidTo()), np.getId()
+            });
+            ids.add(np.getId());
+        }
+        jdbc.getJdbcTemplate().batchUpdate("UPDATE network_point SET name = ?, type = ?, valid_to = ? WHERE id = ?", params);
+
+        jdbc.update("""
+                INSERT INTO network_point_log (network_point_id, code, name, type, valid_from, valid_to,
+                                               provider_id, provider_name, archived, author, timestamp, operation)
+                SELECT np.id, np.code, np.name, np.type, np.valid_from, np.valid_to,
+                       np.provider_id, p.name, np.archived, :author, :ts, :op
+                  FROM network_point np
+                  LEFT JOIN provider p ON p.id = np.provider_id
+                 WHERE np.id IN (:ids)
+                """, auditParams(OperationType.UPDATE).addValue("ids", ids));
+    }
+
+    /** Insert or move forward the checkpoint of one section of an imported file */
+    @Transactional
+    public void saveCheckpoint(ImportPosition position) {
+        if (position == null) return;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("hash", position.fileHash())
+                .addValue("idx", position.sectionIndex())
+                .addValue("section", position.section())
+                .addValue("last", position.lastRecordNumber())
+                .addValue("completed", position.completed())
+                .addValue("ts", Timestamp.valueOf(LocalDateTime.now()));
+        int updated = jdbc.update("""
+                UPDATE import_checkpoint
+                   SET section = :section, last_record_number = :last, completed = :completed, updated_at = :ts
+                 WHERE file_hash = :hash AND section_index = :idx
+                """, params);
+        if (updated == 0) {
+            jdbc.update("""
+                    INSERT INTO import_checkpoint (file_hash, section_index, section, last_record_number, completed, updated_at)
+                    VALUES (:hash, :idx, :section, :last, :completed, :ts)
+                    """, params);
+        }
+    }
+
+    private void refreshProviderStates(Set<Long> providerIds, Set<Long> deferredStates) {
+        if (deferredStates == null) {
+            refreshProviderStates(providerIds);
+        } else {
+            providerIds.remove(null);
+            deferredStates.addAll(providerIds);
+        }
+    }
+
+    /**
+     * Same rule as {@link ProviderService#refreshStateForProvider(Long)}, but for a whole chunk:
+     * two grouped COUNT queries for all touched providers, and an UPDATE (+ UPDATE log) only
+     * for providers whose state actually changed.
+     */
+    void refreshProviderStates(Collection<Long> providerIds) {
+        providerIds.remove(null);
+        if (providerIds.isEmpty()) return;
+
+        MapSqlParameterSource ids = new MapSqlParameterSource("ids", providerIds);
+        Map<Long, Long> vehicleCounts = countByProvider(
+                "SELECT provider_id, COUNT(*) AS cnt FROM vehicle WHERE archived = false AND provider_id IN (:ids) GROUP BY provider_id", ids);
+        Map<Long, Long> networkPointCounts = countByProvider(
+                "SELECT provider_id, COUNT(*) AS cnt FROM network_point WHERE archived = false AND provider_id IN (:ids) GROUP BY provider_id", ids);
+
+        List<Object[]> stateUpdates = new ArrayList<>();
+        List<Object[]> logs = new ArrayList<>();
+        String author = CurrentUserProvider.getUsernameOrSystem();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbc.query("SELECT id, name, email, provider_id, address, state, archived FROM provider WHERE id IN (:ids)", ids, rs -> {
+            long id = rs.getLong("id");
+            long vehicles = vehicleCounts.getOrDefault(id, 0L);
+            long networkPoints = networkPointCounts.getOrDefault(id, 0L);
+            ProviderState state = ProviderService.determineState(vehicles, networkPoints);
+            if (!state.name().equals(rs.getString("state"))) {
+                stateUpdates.add(new Object[]{state.name(), id});
+                logs.add(new Object[]{
+                        id, rs.getString("name"), rs.getString("email"), rs.getString("provider_id"),
+                        rs.getString("address"), state.name(), rs.getBoolean("archived"),
+                        vehicles, networkPoints, author, now, OperationType.UPDATE.name()
+                });
+            }
+        });
+
+        if (stateUpdates.isEmpty()) return;
+
+        jdbc.getJdbcTemplate().batchUpdate("UPDATE provider SET state = ? WHERE id = ?", stateUpdates);
+        jdbc.getJdbcTemplate().batchUpdate("""
+                INSERT INTO provider_log (provider_id, name, email, provider_id_field, address, state, archived,
+                                          vehicle_count, network_point_count, author, timestamp, operation)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """, logs);
+    }
+
+    private Map<Long, Long> countByProvider(String sql, MapSqlParameterSource params) {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbc.query(sql, params, rs -> { counts.put(rs.getLong("provider_id"), rs.getLong("cnt")); });
+        return counts;
+    }
+
+    static MapSqlParameterSource auditParams(OperationType op) {
+        return new MapSqlParameterSource()
+                .addValue("author", CurrentUserProvider.getUsernameOrSystem())
+                .addValue("ts", Timestamp.valueOf(LocalDateTime.now()))
+                .addValue("op", op.name());
+    }
+
+    private static Date date(LocalDate d) {
+        return d != null ? Date.valueOf(d) : null;
+    }
+
+    private static LocalDate localDate(Date d) {
+        return d != null ? d.toLocalDate() : null;
+    }
+}
@@ -0,0 +1,310 @@
+package sk.zzs.vehicle.management.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.dto.ImportPosition;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.dto.ImportRow;
+import sk.zzs.vehicle.management.entity.ImportCheckpoint;
+import sk.zzs.vehicle.management.entity.Provider;
+import sk.zzs.vehicle.management.enumer.ImportEngine;
+import sk.zzs.vehicle.management.enumer.ImportMode;
+import sk.zzs.vehicle.management.util.Checksums;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of one running import: the summary being filled and the lookups shared by all sections.
+ *
+ * Providers are resolved in memory: the map is filled once from the existing (active) providers
+ * and extended with every provider the [Providers] section inserts, so vehicle and network point
+ * rows never need a DB round trip to find their provider.
+ *
+ * Progress counters and the cancel flag may be read / set from other threads
+ * (see {@link ImportJobService}), everything else belongs to the importing thread.
+ * A multi-file job hands every pass over a file its own context ({@link #forFile}); the
+ * summary is thread-safe, the provider map is only filled before the passes that read it start.
+ */
+public class ImportContext {
+
+    /** Job this context reads one file of, {@code null} for the job itself */
+    private final ImportContext job;
+
+    private final ImportResultSummary summary;
+
+    private final Map<String, Provider> providersByProviderId;
+
+    /** Rows read so far (imported or skipped) keyed by section name as used in the summary */
+    private final Map<String, AtomicLong> rowsProcessed;
+
+    private volatile boolean cancelRequested;
+
+    /** SHA-256 of the imported file; {@code null} disables checkpoints */
+    private String fileHash;
+
+    /** Ignore (and drop) the checkpoints of an earlier run of the same file */
+    private boolean restart;
+
+    /** Checkpoints of an earlier run of the same file keyed by section index */
+    private final Map<Integer, ImportCheckpoint> checkpoints = new HashMap<>();
+
+    private ImportMode mode = ImportMode.CREATE;
+
+    private ImportEngine engine = ImportEngine.BATCH;
+
+    private int sectionIndex = -1;
+    private String section;
+
+    /** Validate only: rows that pass are counted as imported but nothing is written */
+    private boolean dryRun;
+
+    /** Providers whose state the writers left to be refreshed at the end of the job, {@code null} = refresh per chunk */
+    private Set<Long> deferredProviderStates;
+
+    // dry run bookkeeping: what the import would have written so far
+    private final AtomicLong nextDryRunProviderId;
+    private final Set<String> dryRunProviderNames;
+    private final Map<Long, Long> plannedVehicles;
+    private final Map<Long, Long> plannedNetworkPoints;
+
+    public ImportContext() {
+        this.job = null;
+        this.summary = new ImportResultSummary();
+        this.providersByProviderId = new HashMap<>();
+        this.rowsProcessed = new ConcurrentHashMap<>();
+        this.nextDryRunProviderId = new AtomicLong(-1);
+        this.dryRunProviderNames = new HashSet<>();
+        this.plannedVehicles = new HashMap<>();
+        this.plannedNetworkPoints = new HashMap<>();
+    }
+
+    private ImportContext(ImportContext job, String fileHash) {
+        this.job = job;
+        this.summary = job.summary;
+        this.providersByProviderId = job.providersByProviderId;
+        this.rowsProcessed = job.rowsProcessed;
+        this.nextDryRunProviderId = job.nextDryRunProviderId;
+        this.dryRunProviderNames = job.dryRunProviderNames;
+        this.plannedVehicles = job.plannedVehicles;
+        this.plannedNetworkPoints = job.plannedNetworkPoints;
+        this.deferredProviderStates = job.deferredProviderStates;
+        this.mode = job.mode;
+        this.engine = job.engine;
+        this.restart = job.restart;
+        this.dryRun = job.dryRun;
+        this.fileHash = fileHash;
+    }
+
+    /**
+     * Context for one pass over one file of a multi-file job. It has its own checkpoints and
+     * section position, everything else (summary, providers, progress, cancel flag, dry run
+     * bookkeeping) is the job's. Passes over different files may run on different threads
+     * as long as only one of them adds providers at a time.
+     */
+    public ImportContext forFile(String fileHash) {
+        return new ImportContext(this, fileHash);
+    }
+
+    public ImportResultSummary getSummary() {
+        return summary;
+    }
+
+    /** Seed the provider lookup with the providers already in the DB */
+    public void addExistingProviders(Collection<Provider> existingProviders) {
+        for (Provider p : existingProviders) {
+            providersByProviderId.put(p.getProviderId(), p);
+        }
+    }
+
+    public String getFileHash() {
+        return fileHash;
+    }
+
+    public void setFileHash(String fileHash) {
+        this.fileHash = fileHash;
+    }
+
+    public boolean isRestart() {
+        return restart;
+    }
+
+    public void setRestart(boolean restart) {
+        this.restart = restart;
+    }
+
+    public ImportMode getMode() {
+        return mode;
+    }
+
+    public void setMode(ImportMode mode) {
+        this.mode = mode;
+    }
+
+    public ImportEngine getEngine() {
+        return engine;
+    }
+
+    public void setEngine(ImportEngine engine) {
+        this.engine = engine;
+    }
+
+    public boolean isUpsert() {
+        return mode == ImportMode.UPSERT;
+    }
+
+    /**
+     * Key the checkpoints of this run are stored under, {@code null} when checkpoints are off.
+     * An upsert of a file must not resume from where a create run of the same file stopped
+     * (or the other way round), so each mode keeps its own checkpoints.
+     */
+    public String getCheckpointKey() {
+        if (fileHash == null) return null;
+        return mode == ImportMode.CREATE ? fileHash : Checksums.sha256Hex(mode.name() + ":" + fileHash);
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+        summary.setDryRun(dryRun);
+    }
+
+    /** Stand-in id for a provider the dry run would insert (negative, so it never clashes with a DB id) */
+    public long nextDryRunProviderId() {
+        return nextDryRunProviderId.getAndDecrement();
+    }
+
+    /** Names of providers the dry run accepted so far, lower-cased */
+    public Set<String> getDryRunProviderNames() {
+        return dryRunProviderNames;
+    }
+
+    public void planVehicle(Long providerId) {
+        plannedVehicles.merge(providerId, 1L, Long::sum);
+    }
+
+    public void planNetworkPoint(Long providerId) {
+        plannedNetworkPoints.merge(providerId, 1L, Long::sum);
+    }
+
+    public Map<Long, Long> getPlannedVehicles() {
+        return plannedVehicles;
+    }
+
+    public Map<Long, Long> getPlannedNetworkPoints() {
+        return plannedNetworkPoints;
+    }
+
+    /** providerId (business key) of a provider known to this import, for messages */
+    public String providerLabel(Long id) {
+        for (Provider p : providersByProviderId.values()) {
+            if (id.equals(p.getId())) return p.getProviderId();
+        }
+        return String.valueOf(id);
+    }
+
+    public void addCheckpoints(Collection<ImportCheckpoint> existing) {
+        for (ImportCheckpoint cp : existing) {
+            checkpoints.put(cp.getSectionIndex(), cp);
+        }
+    }
+
+    /** Called for every section marker of the file, known or not, so indexes match between runs */
+    public void startSection(String section) {
+        this.sectionIndex++;
+        this.section = section;
+    }
+
+    /**
+     * Rows of the current section an earlier run already wrote.
+     *
+     * @return last written record number, 0 when nothing is known, {@link Long#MAX_VALUE} if the section completed
+     */
+    public long resumeAfter() {
+        ImportCheckpoint cp = checkpoints.get(sectionIndex);
+        if (cp == null) return 0;
+        return cp.isCompleted() ? Long.MAX_VALUE : cp.getLastRecordNumber();
+    }
+
+    /** Checkpoint to write together with {@code rows}, or {@code null} when checkpoints are off */
+    public ImportPosition positionAfter(List<? extends ImportRow<?>> rows) {
+        if (fileHash == null || rows.isEmpty()) return null;
+        return new ImportPosition(getCheckpointKey(), sectionIndex, section, rows.get(rows.size() - 1).recordNumber(), false);
+    }
+
+    public ImportPosition sectionCompleted(long lastRecordNumber) {
+        if (fileHash == null) return null;
+        return new ImportPosition(getCheckpointKey(), sectionIndex, section, lastRecordNumber, true);
+    }
+
+    public void rowProcessed(String section) {
+        rowsProcessed.computeIfAbsent(section, s -> new AtomicLong()).incrementAndGet();
+    }
+
+    public Map<String, Long> getRowsProcessed() {
+        Map<String, Long> copy = new LinkedHashMap<>();
+        for (String section : new String[]{"providers", "vehicles", "networkPoints"}) {
+            AtomicLong n = rowsProcessed.get(section);
+            copy.put(section, n != null ? n.get() : 0L);
+        }
+        return copy;
+    }
+
+    /** Ask the import to stop; it is honoured at the next chunk boundary */
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested || (job != null && job.isCancelRequested());
+    }
+
+    /**
+     * Let the writers collect the providers whose state changes instead of refreshing them
+     * chunk by chunk; used when vehicles and network points are written concurrently, so two
+     * writers never recompute (and lock) the same provider row. Call before {@link #forFile}.
+     */
+    public void deferProviderStates() {
+        deferredProviderStates = ConcurrentHashMap.newKeySet();
+    }
+
+    public Set<Long> getDeferredProviderStates() {
+        return deferredProviderStates;
+    }
+
+    /**
+     * Resolve the providerId column of a CSV row.
+     *
+     * @return the provider's database id, or {@code null} when the column is empty
+     * @throws ResponseStatusException when no active provider has this providerId
+     */
+    public Long resolveProviderId(String providerId) {
+        if (providerId == null || providerId.isBlank()) {
+            return null;
+        }
+        Provider p = providersByProviderId.get(providerId);
+        if (p == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Provider '" + providerId + "' not found");
+        }
+        return p.getId();
+    }
+
+    /** Make a provider inserted by this import visible to the following rows */
+    public void registerProvider(String providerId, Long id, String name) {
+        Provider p = new Provider();
+        p.setId(id);
+        p.setProviderId(providerId);
+        p.setName(name);
+        providersByProviderId.put(providerId, p);
+    }
+}
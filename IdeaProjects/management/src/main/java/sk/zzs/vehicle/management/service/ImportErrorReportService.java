@@ -0,0 +1,78 @@
+package sk.zzs.vehicle.management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.util.ImportErrorReport;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the full error lists of imports as CSV files in {@code import.errors.report-dir},
+ * while the import summary only carries a sample; reports are deleted after
+ * {@code import.errors.retention-hours}.
+ */
+@Service
+public class ImportErrorReportService {
+
+    private static final Pattern REPORT_ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    @Value("${import.errors.report-dir:${java.io.tmpdir}/vehicle-import-errors}")
+    private Path reportDir;
+
+    /** Row errors returned in the import response */
+    @Value("${import.errors.sample-size:100}")
+    private int sampleSize;
+
+    @Value("${import.errors.retention-hours:24}")
+    private long retentionHours;
+
+    /** Start a report for the import filling {@code summary}, unless it already has one */
+    public void attach(ImportResultSummary summary) {
+        if (summary.getErrorReport() != null) return;
+        try {
+            Files.createDirectories(reportDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create " + reportDir, e);
+        }
+        String id = UUID.randomUUID().toString();
+        summary.reportErrorsTo(new ImportErrorReport(id, reportDir.resolve(id + ".csv")), sampleSize);
+    }
+
+    public Path getReport(String reportId) {
+        Path file = REPORT_ID.matcher(reportId).matches() ? reportDir.resolve(reportId + ".csv") : null;
+        if (file == null || !Files.isRegularFile(file)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import error report " + reportId + " not found");
+        }
+        return file;
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void purgeOldReports() {
+        if (!Files.isDirectory(reportDir)) return;
+        FileTime limit = FileTime.from(Instant.now().minus(retentionHours, ChronoUnit.HOURS));
+        try (Stream<Path> files = Files.list(reportDir)) {
+            files.filter(f -> f.getFileName().toString().endsWith(".csv")).forEach(f -> {
+                try {
+                    if (Files.getLastModifiedTime(f).compareTo(limit) < 0) Files.delete(f);
+                } catch (IOException e) {
+                    System.out.println("Could not delete import error report " + f + ": " + e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Could not list import error reports in " + reportDir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package sk.zzs.vehicle.management.service;
+
+import sk.zzs.vehicle.management.util.Checksums;
+import sk.zzs.vehicle.management.util.CountingInputStream;
+import sk.zzs.vehicle.management.util.CsvSectionReader;
+import sk.zzs.vehicle.management.util.SectionReader;
+import sk.zzs.vehicle.management.util.XlsxSectionReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An import file spooled to disk.
+ *
+ * @param name     file name as uploaded, tells a workbook from CSV
+ * @param fileHash SHA-256 of the file, its checkpoints are stored under it
+ * @param sections section markers the file contains, in file order; empty until {@link #scan}ned
+ */
+public record ImportFile(String name, Path path, String fileHash, Set<String> sections) {
+
+    /** Copy an upload to a temp file; it is hashed while spooling, the hash identifies it for checkpoints / resume */
+    public static ImportFile spool(InputStream upload, String name) throws IOException {
+        Path spool = Files.createTempFile("import-", ".upload");
+        MessageDigest sha = Checksums.sha256();
+        try (InputStream in = new DigestInputStream(upload, sha)) {
+            Files.copy(in, spool, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spool);
+            throw e;
+        }
+        return new ImportFile(name, spool, Checksums.hex(sha), Set.of());
+    }
+
+    /** Read the file once to find out which sections it has */
+    public static ImportFile scan(String name, Path path, String fileHash) throws IOException {
+        Set<String> sections = new LinkedHashSet<>();
+        try (SectionReader reader = new ImportFile(name, path, fileHash, Set.of()).open(null)) {
+            String section;
+            while ((section = reader.nextSection()) != null) {
+                sections.add(section);
+            }
+        }
+        return new ImportFile(name, path, fileHash, sections);
+    }
+
+    /**
+     * @param bytesRead counts the bytes a CSV reader pulls from the file, {@code null} = not counted;
+     *                  a workbook is read by parts, its progress is only known in rows
+     */
+    public SectionReader open(AtomicLong bytesRead) throws IOException {
+        if (isWorkbook()) {
+            return new XlsxSectionReader(path);
+        }
+        InputStream in = Files.newInputStream(path);
+        try {
+            return CsvSectionReader.open(bytesRead != null ? new CountingInputStream(in, bytesRead) : in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    public boolean isWorkbook() {
+        return SectionReader.isXlsx(name);
+    }
+
+    public long size() throws IOException {
+        return Files.size(path);
+    }
+
+    public void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            System.out.println("Could not delete import spool file " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package sk.zzs.vehicle.management.service;
+
+import sk.zzs.vehicle.management.dto.ImportJobStatusDto;
+import sk.zzs.vehicle.management.enumer.ImportJobStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One import submitted through {@link ImportJobService}. The worker thread updates it,
+ * the polling endpoint reads it, so the mutable state is volatile / atomic.
+ */
+public class ImportJob {
+
+    private final String id;
+    private final String fileName;
+    private volatile long totalBytes;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+
+    private final ImportContext context = new ImportContext();
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failure;
+
+    public ImportJob(String id, String fileName, long totalBytes) {
+        this.id = id;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public ImportContext getContext() {
+        return context;
+    }
+
+    public AtomicLong getBytesRead() {
+        return bytesRead;
+    }
+
+    public ImportJobStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /** A multi-file job reads its files more than once, its total is known once they were scanned */
+    void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    void markRunning() {
+        startedAt = LocalDateTime.now();
+        status = ImportJobStatus.RUNNING;
+    }
+
+    void markFinished(ImportJobStatus finalStatus, String failure) {
+        this.failure = failure;
+        this.finishedAt = LocalDateTime.now();
+        this.status = finalStatus;
+    }
+
+    public ImportJobStatusDto toStatusDto() {
+        ImportJobStatusDto dto = new ImportJobStatusDto();
+        dto.setJobId(id);
+        dto.setFileName(fileName);
+        dto.setStatus(status);
+        dto.setSubmittedAt(submittedAt);
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        dto.setFailure(failure);
+
+        Map<String, Long> rows = context.getRowsProcessed();
+        dto.setRowsProcessed(rows);
+        long totalBytes = this.totalBytes;
+        long read = Math.min(bytesRead.get(), totalBytes);
+        dto.setBytesRead(read);
+        dto.setTotalBytes(totalBytes);
+        dto.setPercentDone(totalBytes > 0 ? Math.round(read * 1000.0 / totalBytes) / 10.0 : 0);
+
+        LocalDateTime start = startedAt;
+        if (start == null) return dto;
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        double seconds = Math.max(Duration.between(start, end).toMillis(), 1) / 1000.0;
+
+        long totalRows = rows.values().stream().mapToLong(Long::longValue).sum();
+        dto.setRowsPerSecond(Math.round(totalRows / seconds * 10) / 10.0);
+
+        // The remaining rows are unknown until the end of the file, so the ETA follows the bytes read
+        if (finishedAt == null && read > 0) {
+            double bytesPerSecond = read / seconds;
+            dto.setEtaSeconds(Math.round((totalBytes - read) / bytesPerSecond));
+        }
+        return dto;
+    }
+}
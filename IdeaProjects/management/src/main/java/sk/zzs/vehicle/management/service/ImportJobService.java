@@ -0,0 +1,250 @@
+package sk.zzs.vehicle.management.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.enumer.ImportEngine;
+import sk.zzs.vehicle.management.enumer.ImportJobStatus;
+import sk.zzs.vehicle.management.enumer.ImportMode;
+import sk.zzs.vehicle.management.util.CompressedUploads;
+import sk.zzs.vehicle.management.util.SectionReader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Runs CSV imports in the background so the upload request returns right away.
+ *
+ * The upload is spooled to a temp file (the multipart part is gone once the request ends),
+ * then imported by a small bounded pool; when the pool and its queue are full new jobs are
+ * refused with 429. A job may have several files (or a zip of several), see
+ * {@link DataImportService#importFiles} for how their sections are scheduled. Finished jobs stay queryable for {@code import.jobs.retention-hours}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ImportJobService {
+
+    private final DataImportService dataImportService;
+    private final StagingImportService stagingImportService;
+
+    @Value("${import.jobs.pool-size:2}")
+    private int poolSize;
+
+    @Value("${import.jobs.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${import.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    private static final Set<String> IMPORTED_SECTIONS = Set.of("Providers", "Vehicles", "NetworkPoints");
+
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void startExecutor() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "import-job-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stopExecutor() {
+        jobs.values().forEach(job -> job.getContext().requestCancel());
+        executor.shutdown();
+    }
+
+    /**
+     * @param files   one sectioned file, or several (each with its own section markers); a single zip of
+     *                several .csv files is imported as those files
+     * @param restart ignore the checkpoints of an earlier run of the same file
+     * @param dryRun  validate only, nothing is written
+     * @param mode    create only, or update the records the file already has
+     * @param engine  which import implementation runs the job
+     */
+    public ImportJob submit(MultipartFile[] files, boolean restart, boolean dryRun, ImportMode mode,
+                            ImportEngine engine) throws IOException {
+        List<ImportFile> spooled = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                spooled.add(ImportFile.spool(file.getInputStream(), file.getOriginalFilename()));
+            }
+            // the staging engine reads a zip as one stream, the batch engine schedules its files
+            ImportFile single = spooled.size() == 1 ? spooled.get(0) : null;
+            if (single != null && engine == ImportEngine.BATCH && !single.isWorkbook()
+                    && CompressedUploads.isZip(single.path())) {
+                List<ImportFile> entries = unzip(spooled.get(0).path());
+                if (entries.size() > 1) {
+                    deleteSpooled(spooled);
+                    spooled.clear();
+                    spooled.addAll(entries);
+                } else {
+                    deleteSpooled(entries);
+                }
+            }
+        } catch (IOException e) {
+            deleteSpooled(spooled);
+            throw e;
+        }
+
+        // workbooks are not read through the byte counter, their progress shows in rows only
+        long totalBytes = 0;
+        for (ImportFile file : spooled) {
+            if (!file.isWorkbook()) totalBytes += file.size();
+        }
+        String fileNames = String.join(", ", Arrays.stream(files).map(MultipartFile::getOriginalFilename).toList());
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileNames, totalBytes);
+        if (spooled.size() == 1) job.getContext().setFileHash(spooled.get(0).fileHash());
+        job.getContext().setRestart(restart);
+        job.getContext().setDryRun(dryRun);
+        job.getContext().setMode(mode);
+        job.getContext().setEngine(engine);
+        jobs.put(job.getId(), job);
+        try {
+            // keep the submitting user as author of the audit logs written by the worker
+            executor.execute(new DelegatingSecurityContextRunnable(() -> run(job, spooled)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteSpooled(spooled);
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                    "Too many imports are running, try again later");
+        }
+        System.out.println("Import job " + job.getId() + " queued for " + fileNames);
+        return job;
+    }
+
+    /** Spool every .csv entry of a zip as a file of its own */
+    private List<ImportFile> unzip(Path zip) throws IOException {
+        List<ImportFile> entries = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (!CompressedUploads.isCsvEntry(entry)) continue;
+                // the spool must not close the zip with the entry
+                entries.add(ImportFile.spool(new FilterInputStream(in) {
+                    @Override
+                    public void close() {
+                    }
+                }, entry.getName()));
+            }
+        } catch (IOException e) {
+            deleteSpooled(entries);
+            throw e;
+        }
+        return entries;
+    }
+
+    public ImportJob getJob(String jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Import job '" + jobId + "' not found");
+        }
+        return job;
+    }
+
+    /** Ask the job to stop; rows of chunks already written stay imported */
+    public ImportJob cancel(String jobId) {
+        ImportJob job = getJob(jobId);
+        if (!job.isFinished()) {
+            job.getContext().requestCancel();
+        }
+        return job;
+    }
+
+    public ImportResultSummary getSummary(String jobId) {
+        ImportJob job = getJob(jobId);
+        if (!job.isFinished()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Import job '" + jobId + "' is still running");
+        }
+        return job.getContext().getSummary();
+    }
+
+    @Scheduled(fixedDelay = 60 * 60 * 1000)
+    public void purgeFinishedJobs() {
+        LocalDateTime limit = LocalDateTime.now().minusHours(retentionHours);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(limit));
+    }
+
+    private void run(ImportJob job, List<ImportFile> files) {
+        try {
+            if (job.getContext().isCancelRequested()) {
+                job.markFinished(ImportJobStatus.CANCELLED, null);
+                return;
+            }
+            job.markRunning();
+            if (files.size() > 1) {
+                runFiles(job, files);
+            } else {
+                SectionReader reader = files.get(0).open(job.getBytesRead());
+                if (job.getContext().getEngine() == ImportEngine.STAGING) {
+                    stagingImportService.importAll(reader, job.getContext());
+                } else {
+                    dataImportService.importAll(reader, job.getContext());
+                }
+            }
+            job.markFinished(job.getContext().isCancelRequested()
+                    ? ImportJobStatus.CANCELLED : ImportJobStatus.COMPLETED, null);
+        } catch (Exception e) {
+            job.getContext().getSummary().addError("Import failed: " + e.getMessage());
+            job.getContext().getSummary().closeErrorReport();
+            job.markFinished(ImportJobStatus.FAILED, e.getMessage());
+        } finally {
+            deleteSpooled(files);
+            System.out.println("Import job " + job.getId() + " finished: " + job.getStatus());
+        }
+    }
+
+    /** Several files: find their sections, then let the import schedule them by section */
+    private void runFiles(ImportJob job, List<ImportFile> files) throws IOException {
+        List<ImportFile> scanned = new ArrayList<>();
+        long totalBytes = 0;
+        for (ImportFile file : files) {
+            ImportFile f = ImportFile.scan(file.name(), file.path(), file.fileHash());
+            long passes = f.sections().stream().filter(IMPORTED_SECTIONS::contains).count();
+            if (passes == 0) {
+                job.getContext().getSummary().addWarning(f.name() + ": no [Providers], [Vehicles] or [NetworkPoints] section, skipped");
+                continue;
+            }
+            // every section is imported by its own pass over the file
+            if (!f.isWorkbook()) totalBytes += passes * f.size();
+            scanned.add(f);
+        }
+        job.setTotalBytes(totalBytes);
+        dataImportService.importFiles(scanned, job.getContext(), job.getBytesRead());
+    }
+
+    private static void deleteSpooled(List<ImportFile> files) {
+        files.forEach(ImportFile::delete);
+    }
+}
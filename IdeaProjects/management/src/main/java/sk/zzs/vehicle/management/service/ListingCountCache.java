@@ -0,0 +1,74 @@
+package sk.zzs.vehicle.management.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Row counts of paged listings, kept for a while so that listings asked for an estimated total
+ * ({@link sk.zzs.vehicle.management.enumer.IncludeTotal#ESTIMATE}) run their COUNT query once
+ * per listing and filter instead of once per page.
+ */
+@Service
+public class ListingCountCache {
+
+    /** Above this many cached counts the stale ones are dropped, then all of them */
+    static final int MAX_ENTRIES = 1000;
+
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+
+    @Value("${listing.count-cache-seconds:60}")
+    private long ttlSeconds;
+
+    private record CachedCount(long count, long expiresAt) {
+    }
+
+    /**
+     * {@code slice} as a page whose total is the cached count of the listing {@code key}
+     * (counted with {@code exactCount} when missing or stale). The total is kept consistent with
+     * the slice: never below the rows it has seen, and exact once the slice is the last one.
+     */
+    public <T> Page<T> withEstimatedTotal(Slice<T> slice, String key, LongSupplier exactCount) {
+        Pageable pageable = slice.getPageable();
+        long seen = (pageable.isPaged() ? pageable.getOffset() : 0) + slice.getNumberOfElements();
+
+        long total;
+        if (slice.hasNext()) {
+            total = Math.max(estimate(key, exactCount), seen + 1);
+        } else if (slice.hasContent()) {
+            // the last page tells the exact count for free
+            total = seen;
+            put(key, total);
+        } else {
+            // past the end: the listing has at most offset rows
+            total = Math.min(estimate(key, exactCount), seen);
+        }
+        return new PageImpl<>(slice.getContent(), pageable, total);
+    }
+
+    public long estimate(String key, LongSupplier exactCount) {
+        CachedCount cached = counts.get(key);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.count();
+        }
+        long count = exactCount.getAsLong();
+        put(key, count);
+        return count;
+    }
+
+    private void put(String key, long count) {
+        long now = System.currentTimeMillis();
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.values().removeIf(c -> c.expiresAt() <= now);
+            if (counts.size() >= MAX_ENTRIES) counts.clear();
+        }
+        counts.put(key, new CachedCount(count, now + ttlSeconds * 1000));
+    }
+}
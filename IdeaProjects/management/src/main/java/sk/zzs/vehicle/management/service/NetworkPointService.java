@@ -2,8 +2,8 @@ package sk.zzs.vehicle.management.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +13,7 @@ import sk.zzs.vehicle.management.dto.NetworkPointMapper;
 import sk.zzs.vehicle.management.entity.NetworkPoint;
 import sk.zzs.vehicle.management.entity.NetworkPointLog;
 import sk.zzs.vehicle.management.entity.Provider;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.enumer.OperationType;
 import sk.zzs.vehicle.management.repository.NetworkPointLogRepository;
 import sk.zzs.vehicle.management.repository.NetworkPointRepository;
@@ -47,6 +48,9 @@ public class NetworkPointService {
     @Autowired
     private NetworkPointMapper networkPointMapper;
 
+    @Autowired
+    private ListingCountCache listingCountCache;
+
     @Autowired
     private NetworkPointQueueService queueService;
 
@@ -262,8 +266,15 @@ public class NetworkPointService {
         return networkPointMapper.toDto(np);
     }
 
-    public Page<NetworkPointDto> getArchived(Pageable pageable) {
-        return networkPointRepository.findArchivedNative(pageable).map(networkPointMapper::toDto);
+    public Slice<NetworkPointDto> getArchived(Pageable pageable, IncludeTotal includeTotal) {
+        return switch (includeTotal) {
+            case EXACT -> networkPointRepository.findArchivedNative(pageable).map(networkPointMapper::toDto);
+            case NONE -> networkPointRepository.findArchivedSliceNative(pageable).map(networkPointMapper::toDto);
+            case ESTIMATE -> listingCountCache
+                    .withEstimatedTotal(networkPointRepository.findArchivedSliceNative(pageable),
+                            "network-points:archived", networkPointRepository::countArchivedNative)
+                    .map(networkPointMapper::toDto);
+        };
     }
 
     public NetworkPointDto getArchivedById(Long id) {
@@ -2,8 +2,8 @@ package sk.zzs.vehicle.management.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,6 +14,7 @@ import sk.zzs.vehicle.management.entity.NetworkPoint;
 import sk.zzs.vehicle.management.entity.Provider;
 import sk.zzs.vehicle.management.entity.ProviderLog;
 import sk.zzs.vehicle.management.entity.Vehicle;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.enumer.OperationType;
 import sk.zzs.vehicle.management.enumer.ProviderState;
 import sk.zzs.vehicle.management.repository.ProviderLogRepository;
@@ -50,6 +51,9 @@ public class ProviderService {
     @Autowired
     private ProviderMapper providerMapper;
 
+    @Autowired
+    private ListingCountCache listingCountCache;
+
     @Autowired
     @Lazy
     private VehicleService vehicleService;
@@ -224,8 +228,15 @@ public class ProviderService {
         return true;
     }
 
-    public Page<ProviderDto> getArchived(Pageable pageable) {
-        return providerRepository.findArchivedNative(pageable).map(providerMapper::toDto);
+    public Slice<ProviderDto> getArchived(Pageable pageable, IncludeTotal includeTotal) {
+        return switch (includeTotal) {
+            case EXACT -> providerRepository.findArchivedNative(pageable).map(providerMapper::toDto);
+            case NONE -> providerRepository.findArchivedSliceNative(pageable).map(providerMapper::toDto);
+            case ESTIMATE -> listingCountCache
+                    .withEstimatedTotal(providerRepository.findArchivedSliceNative(pageable),
+                            "providers:archived", providerRepository::countArchivedNative)
+                    .map(providerMapper::toDto);
+        };
     }
 
     public ProviderDto getArchivedById(Long id) {
@@ -254,7 +265,7 @@ public class ProviderService {
         });
     }
 
-    private ProviderState determineState(long vehicleCount, long networkPointCount) {
+    static ProviderState determineState(long vehicleCount, long networkPointCount) {
         if (vehicleCount == 0 || networkPointCount == 0) {
             return ProviderState.DISABLED;
         }
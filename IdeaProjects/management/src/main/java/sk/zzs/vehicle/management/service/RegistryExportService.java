@@ -0,0 +1,162 @@
+package sk.zzs.vehicle.management.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the whole registry as a sectioned CSV in the import format
+ * ({@code [Providers]}, {@code [Vehicles]}, {@code [NetworkPoints]}), so an export can be
+ * imported again by {@link DataImportService}.
+ *
+ * Everything is read inside one read-only REPEATABLE_READ transaction: all sections come
+ * from the same snapshot, and MVCC reads take no locks, so writers are never blocked.
+ * Rows are fetched in pages ordered by id, each page starting after the last id of the
+ * previous one (keyset paging, no OFFSET), and written out as they are read, so memory
+ * does not grow with the size of the registry.
+ *
+ * Archived records are not exported. Line breaks inside values become spaces, the import
+ * reads a record per line.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistryExportService {
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Rows read per query */
+    @Value("${export.page-size:5000}")
+    private int pageSize;
+
+    private static final String PROVIDERS_SQL = """
+            SELECT id, provider_id, name, email, address
+            FROM provider
+            WHERE archived = false AND id > :after
+            ORDER BY id
+            LIMIT :limit
+            """;
+
+    private static final String VEHICLES_SQL = """
+            SELECT v.id, v.vin_num, v.brand, v.model, v.license_plate, v.first_registration_date,
+                   v.technical_check_valid_until, p.provider_id, v.provider_assignment_end_date
+            FROM vehicle v
+            LEFT JOIN provider p ON p.id = v.provider_id
+            WHERE v.archived = false AND v.id > :after
+            ORDER BY v.id
+            LIMIT :limit
+            """;
+
+    /** Queue provider = the current registration at position 0, see NetworkPoint#getCurrentProvider */
+    private static final String NETWORK_POINTS_SQL = """
+            SELECT np.id, np.code, np.name, np.type, np.valid_to, p.provider_id, r.registration_end_date
+            FROM network_point np
+            LEFT JOIN provider_network_point_registration r
+                   ON r.network_point_id = np.id AND r.current = true AND r.queue_position = 0
+            LEFT JOIN provider p ON p.id = r.provider_id
+            WHERE np.archived = false AND np.id > :after
+            ORDER BY np.id
+            LIMIT :limit
+            """;
+
+    /** Write the registry to {@code out}; {@code out} is flushed but not closed */
+    public void export(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        CSVPrinter csv = new CSVPrinter(writer, CSVFormat.DEFAULT);
+
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        long[] counts;
+        try {
+            counts = snapshot.execute(status -> new long[]{
+                    exportSection(csv, "Providers", PROVIDERS_SQL,
+                            new String[]{"providerId", "name", "email", "address"},
+                            rs -> new Object[]{
+                                    text(rs, "provider_id"), text(rs, "name"), text(rs, "email"), text(rs, "address")}),
+                    exportSection(csv, "Vehicles", VEHICLES_SQL,
+                            new String[]{"vin_num", "brand", "model", "license_plate", "first_registration_date",
+                                    "technical_check_valid_until", "provider_id", "provider_assignment_end_date"},
+                            rs -> new Object[]{
+                                    text(rs, "vin_num"), text(rs, "brand"), text(rs, "model"), text(rs, "license_plate"),
+                                    date(rs, "first_registration_date"), date(rs, "technical_check_valid_until"),
+                                    text(rs, "provider_id"), date(rs, "provider_assignment_end_date")}),
+                    exportSection(csv, "NetworkPoints", NETWORK_POINTS_SQL,
+                            new String[]{"code", "name", "type", "valid_to", "provider_id", "provider_end_date"},
+                            rs -> new Object[]{
+                                    text(rs, "code"), text(rs, "name"), text(rs, "type"), date(rs, "valid_to"),
+                                    text(rs, "provider_id"), date(rs, "registration_end_date")})
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        csv.flush();
+
+        log.info("Registry export: {} providers, {} vehicles, {} network points in {} ms",
+                counts[0], counts[1], counts[2], System.currentTimeMillis() - start);
+    }
+
+    /** Marker, header and every row of one section, page by page; returns the number of rows */
+    private long exportSection(CSVPrinter csv, String section, String sql, String[] header, RowValues values) {
+        try {
+            csv.printRecord("[" + section + "]");
+            csv.printRecord((Object[]) header);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long total = 0;
+        long after = 0;
+        while (true) {
+            long[] page = {0, after};
+            jdbc.query(sql, new MapSqlParameterSource().addValue("after", after).addValue("limit", pageSize), rs -> {
+                try {
+                    csv.printRecord(values.of(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                page[0]++;
+                page[1] = rs.getLong("id");
+            });
+            total += page[0];
+            if (page[0] < pageSize) return total;
+            after = page[1];
+        }
+    }
+
+    private static String text(ResultSet rs, String column) throws SQLException {
+        String s = rs.getString(column);
+        return s == null ? null : s.replaceAll("\\R", " ");
+    }
+
+    private static String date(ResultSet rs, String column) throws SQLException {
+        Date d = rs.getDate(column);
+        return d == null ? null : d.toLocalDate().toString();
+    }
+
+    @FunctionalInterface
+    private interface RowValues {
+        Object[] of(ResultSet rs) throws SQLException;
+    }
+}
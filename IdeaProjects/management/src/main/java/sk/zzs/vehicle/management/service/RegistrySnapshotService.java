@@ -0,0 +1,289 @@
+package sk.zzs.vehicle.management.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Column;
+import sk.zzs.vehicle.management.util.SnapshotFormat.ColumnType;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Table;
+import sk.zzs.vehicle.management.util.SnapshotReader;
+import sk.zzs.vehicle.management.util.SnapshotWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Point-in-time copy of the registry tables (active and archived rows) in the binary
+ * {@link sk.zzs.vehicle.management.util.SnapshotFormat}, and the bulk restore of such a copy
+ * into an empty schema, e.g. to set up a test or standby node without replaying the import.
+ *
+ * Rows are copied column for column with their ids, so restoring skips all validation,
+ * entity listeners and audit logs; the audit log tables, users and devices are not part of
+ * a snapshot. The stored vehicle file paths are, the files themselves are not.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrySnapshotService {
+
+    private final JdbcTemplate jdbc;
+    private final PlatformTransactionManager transactionManager;
+    private final VehicleSearchIndex vehicleSearchIndex;
+
+    /** Rows read per query when taking a snapshot */
+    @Value("${export.page-size:5000}")
+    private int pageSize;
+
+    /**
+     * @param key       column the table is read in order of
+     * @param uniqueKey whether {@code key} identifies a row; if not, the table is read by key ranges
+     */
+    private record SnapshotTable(String name, String key, boolean uniqueKey) {
+    }
+
+    /** In the order a restore has to insert them, parents before the rows referencing them */
+    private static final List<SnapshotTable> TABLES = List.of(
+            new SnapshotTable("provider", "id", true),
+            new SnapshotTable("vehicle", "id", true),
+            new SnapshotTable("vehicle_files", "vehicle_id", false),
+            new SnapshotTable("network_point", "id", true),
+            new SnapshotTable("provider_network_point_registration", "id", true));
+
+    /**
+     * Write a snapshot to {@code out} (flushed, not closed). All tables are read in one read-only
+     * REPEATABLE_READ transaction, so they are consistent with each other and writers are not blocked.
+     *
+     * @return rows written per table
+     */
+    public Map<String, Long> snapshot(OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        SnapshotWriter writer = new SnapshotWriter(out, start);
+
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try {
+            snapshot.executeWithoutResult(status -> {
+                for (SnapshotTable t : TABLES) {
+                    counts.put(t.name(), writeTable(writer, t));
+                }
+            });
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        log.info("Registry snapshot: {} in {} ms", counts, System.currentTimeMillis() - start);
+        return counts;
+    }
+
+    /**
+     * Load a snapshot into the registry tables, all or nothing in one transaction.
+     *
+     * @return rows inserted per table
+     * @throws ResponseStatusException CONFLICT when a registry table already has rows
+     * @throws IOException             when the file is not a snapshot or is damaged
+     */
+    public Map<String, Long> restore(InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        SnapshotReader reader = new SnapshotReader(in);
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                requireEmptySchema();
+                try {
+                    Table table;
+                    while ((table = reader.nextTable()) != null) {
+                        counts.put(table.name(), restoreTable(reader, table));
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        // DDL, would commit an open transaction on MariaDB
+        for (SnapshotTable t : TABLES) {
+            if (t.uniqueKey()) resetIdentity(t);
+        }
+        // the search index is derived data, snapshots do not carry it
+        vehicleSearchIndex.rebuild();
+
+        log.info("Registry restore from snapshot of {}: {} in {} ms", Instant.ofEpochMilli(reader.getCreatedAt()),
+                counts, System.currentTimeMillis() - start);
+        return counts;
+    }
+
+    /** Whether no registry table has a row, i.e. a snapshot can be restored */
+    public boolean isSchemaEmpty() {
+        return TABLES.stream().allMatch(t -> rowCount(t.name()) == 0);
+    }
+
+    // ---------- snapshot ----------
+
+    private long writeTable(SnapshotWriter writer, SnapshotTable t) {
+        Table table = new Table(t.name(), jdbc.query("SELECT * FROM " + t.name() + " WHERE 1 = 0",
+                RegistrySnapshotService::columns));
+        List<ColumnType> types = table.columns().stream().map(Column::type).toList();
+        try {
+            writer.beginTable(table);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long total = 0;
+        if (t.uniqueKey()) {
+            // keyset paging: each page starts after the last key of the previous one
+            String sql = "SELECT * FROM " + t.name() + " WHERE " + t.key() + " > ? ORDER BY " + t.key() + " LIMIT ?";
+            long after = 0;
+            while (true) {
+                long[] page = {0, after};
+                jdbc.query(sql, rs -> {
+                    write(writer, rs, types);
+                    page[0]++;
+                    page[1] = rs.getLong(t.key());
+                }, after, pageSize);
+                total += page[0];
+                if (page[0] < pageSize) break;
+                after = page[1];
+            }
+        } else {
+            // several rows per key: read ranges of pageSize keys, a page never splits a key's rows
+            String sql = "SELECT * FROM " + t.name() + " WHERE " + t.key() + " > ? AND " + t.key() + " <= ?";
+            Map<String, Object> range = jdbc.queryForMap(
+                    "SELECT MIN(" + t.key() + ") AS lo, MAX(" + t.key() + ") AS hi FROM " + t.name());
+            if (range.get("lo") != null) {
+                long hi = ((Number) range.get("hi")).longValue();
+                long[] rows = {0};
+                for (long after = ((Number) range.get("lo")).longValue() - 1; after < hi; after += pageSize) {
+                    jdbc.query(sql, rs -> {
+                        write(writer, rs, types);
+                        rows[0]++;
+                    }, after, after + pageSize);
+                }
+                total = rows[0];
+            }
+        }
+
+        try {
+            writer.endTable();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return total;
+    }
+
+    private static List<Column> columns(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        List<Column> columns = new ArrayList<>();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String name = meta.getColumnLabel(i).toLowerCase(Locale.ROOT);
+            columns.add(new Column(name, ColumnType.ofSqlType(meta.getColumnType(i), meta.getColumnTypeName(i), name)));
+        }
+        return columns;
+    }
+
+    private static void write(SnapshotWriter writer, ResultSet rs, List<ColumnType> types) throws SQLException {
+        Object[] values = new Object[types.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = value(rs, i + 1, types.get(i));
+        }
+        try {
+            writer.writeRow(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object value(ResultSet rs, int column, ColumnType type) throws SQLException {
+        Object value = switch (type) {
+            case LONG -> rs.getLong(column);
+            case INT -> rs.getInt(column);
+            case BOOLEAN -> rs.getBoolean(column);
+            case STRING -> rs.getString(column);
+            case DATE -> rs.getObject(column, LocalDate.class);
+            case TIMESTAMP -> rs.getObject(column, LocalDateTime.class);
+            case DECIMAL -> rs.getBigDecimal(column);
+            case DOUBLE -> rs.getDouble(column);
+        };
+        return rs.wasNull() ? null : value;
+    }
+
+    // ---------- restore ----------
+
+    private void requireEmptySchema() {
+        for (SnapshotTable t : TABLES) {
+            long rows = rowCount(t.name());
+            if (rows > 0) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A snapshot can only be restored into an empty schema, table " + t.name() + " has " + rows + " rows");
+            }
+        }
+    }
+
+    private long restoreTable(SnapshotReader reader, Table table) throws IOException {
+        if (TABLES.stream().noneMatch(t -> t.name().equals(table.name()))) {
+            throw new IOException("Snapshot has a table this registry does not know: " + table.name());
+        }
+        Set<String> existing = new HashSet<>(jdbc.query("SELECT * FROM " + table.name() + " WHERE 1 = 0",
+                RegistrySnapshotService::columns).stream().map(Column::name).toList());
+        for (Column c : table.columns()) {
+            if (!existing.contains(c.name())) {
+                throw new IOException("Table " + table.name() + " has no column " + c.name()
+                        + ", the schema is older than the snapshot");
+            }
+        }
+
+        String sql = "INSERT INTO " + table.name()
+                + " (" + table.columns().stream().map(Column::name).collect(Collectors.joining(", ")) + ")"
+                + " VALUES (" + table.columns().stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+        int[] sqlTypes = table.columns().stream().mapToInt(c -> c.type().sqlType).toArray();
+
+        long total = 0;
+        List<Object[]> block;
+        while ((block = reader.nextBlock()) != null) {
+            jdbc.batchUpdate(sql, block, sqlTypes);
+            total += block.size();
+        }
+        return total;
+    }
+
+    /** Continue generated ids after the restored ones (MariaDB does this itself, not every database does) */
+    private void resetIdentity(SnapshotTable t) {
+        Long max = jdbc.queryForObject("SELECT MAX(" + t.key() + ") FROM " + t.name(), Long.class);
+        if (max != null) {
+            jdbc.execute("ALTER TABLE " + t.name() + " AUTO_INCREMENT = " + (max + 1));
+        }
+    }
+
+    private long rowCount(String table) {
+        Long rows = jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return rows == null ? 0 : rows;
+    }
+}
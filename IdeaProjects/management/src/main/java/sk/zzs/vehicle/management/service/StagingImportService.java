@@ -0,0 +1,460 @@
+package sk.zzs.vehicle.management.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.enumer.ImportEngine;
+import sk.zzs.vehicle.management.enumer.ImportErrorType;
+import sk.zzs.vehicle.management.enumer.NetworkPointType;
+import sk.zzs.vehicle.management.enumer.OperationType;
+import sk.zzs.vehicle.management.enumer.ProviderState;
+import sk.zzs.vehicle.management.util.CsvSectionReader;
+import sk.zzs.vehicle.management.util.ImportRecord;
+import sk.zzs.vehicle.management.util.SectionReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Import engine for very large files ({@link ImportEngine#STAGING}).
+ *
+ * Each section is bulk-loaded as it is into a staging table ({@code provider_stage},
+ * {@code vehicle_stage}, {@code network_point_stage}) under a run id. The same rules as the
+ * create endpoints are then checked by a handful of set-based UPDATE statements that mark
+ * the failing rows, and the valid rows are merged into the live tables with INSERT ... SELECT,
+ * together with their CREATE logs, in one transaction per section. MariaDB does all the
+ * per-row work; the Java side only parses the CSV.
+ *
+ * Only creates new records: no upsert, dry run or resume from checkpoints. A section is
+ * all-or-nothing, a cancel before its merge leaves nothing of it in the live tables.
+ */
+@Service
+@RequiredArgsConstructor
+public class StagingImportService {
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final ImportBatchWriter importBatchWriter;
+    private final PlatformTransactionManager transactionManager;
+    private final ImportErrorReportService importErrorReportService;
+    private final VehicleSearchIndex vehicleSearchIndex;
+
+    /** Rows per JDBC batch when filling a staging table */
+    @Value("${import.chunk-size:1000}")
+    private int chunkSize;
+
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("[yyyy-MM-dd][M/d/yyyy]");
+
+    /**
+     * A rule the staged rows must pass.
+     *
+     * @param failsWhen SQL condition on the staged row {@code s} that makes it fail
+     * @param type      error type of the failing rows
+     * @param message   SQL expression giving the error message
+     */
+    private record Rule(String failsWhen, ImportErrorType type, String message) {}
+
+    /**
+     * How one section is staged and merged.
+     *
+     * @param parse     record to the staged column values (after job_id and record_number)
+     * @param values    number of values {@code parse} returns
+     * @param prepare   statements run before the rules, e.g. resolving provider keys to ids
+     * @param merge     statements copying the valid rows (error_message IS NULL) to the live tables
+     * @param providerColumn staging column holding the provider id whose state the merge may change, or {@code null}
+     * @param searchIndexed how the merged rows get into the vehicle search index, or {@code null}
+     */
+    private record Stage(String section, String label, String table, String insert,
+                         Function<ImportRecord, Object[]> parse, int values, List<String> prepare, List<Rule> rules,
+                         List<String> merge, String providerColumn, SearchIndexed<?> searchIndexed) {}
+
+    /**
+     * @param merged SQL selecting the live rows the merge created
+     * @param row    maps one of them to what the index needs of it
+     * @param index  the {@link VehicleSearchIndex} method indexing them; they are all new
+     */
+    private record SearchIndexed<T>(String merged, RowMapper<T> row, BiConsumer<VehicleSearchIndex, List<T>> index) {}
+
+    private static final Stage PROVIDERS = new Stage(
+            "providers", "Provider", "provider_stage",
+            "INSERT INTO provider_stage (job_id, record_number, provider_id, name, email, address, error_type, error_message) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+            r -> new Object[]{get(r, "providerId"), get(r, "name"), get(r, "email"), get(r, "address")}, 4,
+            List.of(),
+            List.of(
+                    new Rule("s.provider_id IS NULL OR s.provider_id = ''", ImportErrorType.MISSING_VALUE, "'providerId is required'"),
+                    new Rule("s.name IS NULL OR s.name = ''", ImportErrorType.MISSING_VALUE, "'name is required'"),
+                    // Same duplicate rule and wording as ProviderService.createProvider
+                    new Rule("""
+                            EXISTS (SELECT 1 FROM provider_stage f WHERE f.job_id = s.job_id AND f.provider_id = s.provider_id
+                                       AND f.record_number < s.record_number AND f.error_message IS NULL)
+                            OR EXISTS (SELECT 1 FROM provider p WHERE p.provider_id = s.provider_id)""", ImportErrorType.DUPLICATE,
+                            "CONCAT('Poskytovateľ s ID \"', s.provider_id, '\" už existuje. Nemožno vytvoriť duplicitný záznam.')"),
+                    new Rule("""
+                            EXISTS (SELECT 1 FROM provider_stage f WHERE f.job_id = s.job_id AND f.name = s.name
+                                       AND f.record_number < s.record_number AND f.error_message IS NULL)
+                            OR EXISTS (SELECT 1 FROM provider p WHERE p.name = s.name)""", ImportErrorType.DUPLICATE,
+                            "CONCAT('a provider named ''', s.name, ''' already exists')")),
+            List.of("""
+                            INSERT INTO provider (name, email, password, provider_id, address, state, archived)
+                            SELECT s.name, s.email, :password, s.provider_id, s.address, :state, false
+                              FROM provider_stage s
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                             ORDER BY s.record_number
+                            """,
+                    """
+                            INSERT INTO provider_log (provider_id, name, email, provider_id_field, address, state, archived,
+                                                      vehicle_count, network_point_count, author, timestamp, operation)
+                            SELECT p.id, p.name, p.email, p.provider_id, p.address, p.state, p.archived,
+                                   0, 0, :author, :ts, :op
+                              FROM provider_stage s
+                              JOIN provider p ON p.provider_id = s.provider_id
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                            """),
+            null,
+            new SearchIndexed<>("""
+                    SELECT p.id, p.name, p.provider_id FROM provider_stage s JOIN provider p ON p.provider_id = s.provider_id
+                     WHERE s.job_id = :job AND s.error_message IS NULL
+                    """, (rs, i) -> new VehicleSearchIndex.NewProvider(rs.getLong(1), rs.getString(2), rs.getString(3)),
+                    VehicleSearchIndex::indexNewProviders));
+
+    private static final Stage VEHICLES = new Stage(
+            "vehicles", "Vehicle", "vehicle_stage",
+            """
+                    INSERT INTO vehicle_stage (job_id, record_number, vin_num, brand, model, license_plate, first_registration_date,
+                                               technical_check_valid_until, provider_key, provider_assignment_end_date,
+                                               error_type, error_message)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """,
+            r -> new Object[]{
+                    get(r, "vin_num"), get(r, "brand"), get(r, "model"), get(r, "license_plate"),
+                    parseDateSafe(get(r, "first_registration_date")), parseDateSafe(get(r, "technical_check_valid_until")),
+                    get(r, "provider_id"), parseDateSafe(get(r, "provider_assignment_end_date"))
+            }, 8,
+            List.of("""
+                    UPDATE vehicle_stage s
+                       SET provider_ref = (SELECT p.id FROM provider p WHERE p.provider_id = s.provider_key AND p.archived = false)
+                     WHERE s.job_id = :job AND s.error_message IS NULL
+                    """),
+            List.of(
+                    // Same rules and wording as VehicleService.registerVehicle
+                    new Rule("s.provider_key IS NULL OR s.provider_key = ''", ImportErrorType.MISSING_VALUE, "'Provider is required when creating a vehicle'"),
+                    new Rule("s.provider_ref IS NULL", ImportErrorType.NOT_FOUND, "CONCAT('Provider ''', s.provider_key, ''' not found')"),
+                    new Rule("s.provider_assignment_end_date IS NULL", ImportErrorType.MISSING_VALUE, "'Provider assignment end date is required'"),
+                    new Rule("""
+                            s.license_plate IS NULL OR s.license_plate = '' OR s.vin_num IS NULL OR s.vin_num = ''
+                            OR s.brand IS NULL OR s.brand = '' OR s.model IS NULL OR s.model = ''""", ImportErrorType.MISSING_VALUE,
+                            """
+                            CONCAT(CASE WHEN s.license_plate IS NULL OR s.license_plate = '' THEN 'license_plate'
+                                        WHEN s.vin_num IS NULL OR s.vin_num = '' THEN 'vin_num'
+                                        WHEN s.brand IS NULL OR s.brand = '' THEN 'brand'
+                                        ELSE 'model' END, ' is required')"""),
+                    new Rule("""
+                            EXISTS (SELECT 1 FROM vehicle_stage f WHERE f.job_id = s.job_id AND f.vin_num = s.vin_num
+                                       AND f.record_number < s.record_number AND f.error_message IS NULL)
+                            OR EXISTS (SELECT 1 FROM vehicle v WHERE v.vin_num = s.vin_num)""", ImportErrorType.DUPLICATE,
+                            "CONCAT('Vehicle with VIN number ''', s.vin_num, ''' already exists (active or archived). Cannot register duplicate VIN.')"),
+                    new Rule("""
+                            EXISTS (SELECT 1 FROM vehicle_stage f WHERE f.job_id = s.job_id AND f.license_plate = s.license_plate
+                                       AND f.record_number < s.record_number AND f.error_message IS NULL)
+                            OR EXISTS (SELECT 1 FROM vehicle v WHERE v.license_plate = s.license_plate)""", ImportErrorType.DUPLICATE,
+                            "CONCAT('Vehicle with license plate ''', s.license_plate, ''' already exists (active or archived). Cannot register duplicate license plate.')")),
+            List.of("""
+                            INSERT INTO vehicle (license_plate, vin_num, brand, model, first_registration_date,
+                                                 technical_check_valid_until, provider_id,
+                                                 provider_assignment_start_date, provider_assignment_end_date, archived)
+                            SELECT s.license_plate, s.vin_num, s.brand, s.model, s.first_registration_date,
+                                   s.technical_check_valid_until, s.provider_ref, :today, s.provider_assignment_end_date, false
+                              FROM vehicle_stage s
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                             ORDER BY s.record_number
+                            """,
+                    """
+                            INSERT INTO vehicle_log (vehicle_id, license_plate, vin_num, brand, model, first_registration_date,
+                                                     last_technical_check_date, technical_check_valid_until,
+                                                     provider_id, provider_name, author, timestamp, operation)
+                            SELECT v.id, v.license_plate, v.vin_num, v.brand, v.model, v.first_registration_date,
+                                   v.last_technical_check_date, v.technical_check_valid_until,
+                                   v.provider_id, p.name, :author, :ts, :op
+                              FROM vehicle_stage s
+                              JOIN vehicle v ON v.license_plate = s.license_plate
+                              LEFT JOIN provider p ON p.id = v.provider_id
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                            """),
+            "provider_ref",
+            new SearchIndexed<>("""
+                    SELECT v.id, v.license_plate, v.vin_num, v.brand, v.model, v.provider_id
+                      FROM vehicle_stage s JOIN vehicle v ON v.license_plate = s.license_plate
+                     WHERE s.job_id = :job AND s.error_message IS NULL
+                    """, (rs, i) -> new VehicleSearchIndex.NewVehicle(rs.getLong(1), rs.getString(2), rs.getString(3),
+                            rs.getString(4), rs.getString(5), rs.getObject(6, Long.class)),
+                    VehicleSearchIndex::indexNewVehicles));
+
+    private static final Stage NETWORK_POINTS = new Stage(
+            "networkPoints", "NetworkPoint", "network_point_stage",
+            """
+                    INSERT INTO network_point_stage (job_id, record_number, code, name, type, valid_to, provider_key,
+                                                     provider_end_date, error_type, error_message)
+                    VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                    """,
+            r -> new Object[]{
+                    get(r, "code"), get(r, "name"), NetworkPointType.valueOf(get(r, "type")).name(),
+                    parseDateSafe(get(r, "valid_to")), get(r, "provider_id"), parseDateSafe(get(r, "provider_end_date"))
+            }, 6,
+            List.of("""
+                    UPDATE network_point_stage s
+                       SET provider_ref = (SELECT p.id FROM provider p WHERE p.provider_id = s.provider_key AND p.archived = false)
+                     WHERE s.job_id = :job AND s.error_message IS NULL
+                    """),
+            List.of(
+                    // Same rules and wording as NetworkPointService.createNetworkPoint
+                    new Rule("s.code IS NULL OR s.code = ''", ImportErrorType.MISSING_VALUE, "'code is required'"),
+                    new Rule("s.name IS NULL OR s.name = ''", ImportErrorType.MISSING_VALUE, "'name is required'"),
+                    new Rule("s.valid_to IS NULL", ImportErrorType.MISSING_VALUE, "'NetworkPoint validTo date is required'"),
+                    new Rule("s.provider_key IS NULL OR s.provider_key = ''", ImportErrorType.MISSING_VALUE, "'Exactly one provider is required when creating a NetworkPoint'"),
+                    new Rule("s.provider_ref IS NULL", ImportErrorType.NOT_FOUND, "CONCAT('Provider ''', s.provider_key, ''' not found')"),
+                    new Rule("s.provider_end_date IS NULL", ImportErrorType.MISSING_VALUE, "'Provider registration end date is required'"),
+                    new Rule("""
+                            EXISTS (SELECT 1 FROM network_point_stage f WHERE f.job_id = s.job_id AND f.code = s.code
+                                       AND f.record_number < s.record_number AND f.error_message IS NULL)""", ImportErrorType.DUPLICATE,
+                            "CONCAT('NetworkPoint with code ''', s.code, ''' is listed more than once')"),
+                    new Rule("EXISTS (SELECT 1 FROM network_point np WHERE np.code = s.code)", ImportErrorType.DUPLICATE,
+                            "CONCAT('a network point with code ''', s.code, ''' already exists')")),
+            List.of("""
+                            INSERT INTO network_point (code, name, type, valid_from, valid_to, provider_id, archived)
+                            SELECT s.code, s.name, s.type, :today, s.valid_to, s.provider_ref, false
+                              FROM network_point_stage s
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                             ORDER BY s.record_number
+                            """,
+                    // Queue initialization: the only registration is current, position 0, starting today
+                    """
+                            INSERT INTO provider_network_point_registration
+                                   (network_point_id, provider_id, registration_start_date, registration_end_date,
+                                    queue_position, current)
+                            SELECT np.id, s.provider_ref, :today, s.provider_end_date, 0, true
+                              FROM network_point_stage s
+                              JOIN network_point np ON np.code = s.code
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                            """,
+                    """
+                            INSERT INTO network_point_log (network_point_id, code, name, type, valid_from, valid_to,
+                                                           provider_id, provider_name, archived, author, timestamp, operation)
+                            SELECT np.id, np.code, np.name, np.type, np.valid_from, np.valid_to,
+                                   np.provider_id, p.name, np.archived, :author, :ts, :op
+                              FROM network_point_stage s
+                              JOIN network_point np ON np.code = s.code
+                              LEFT JOIN provider p ON p.id = np.provider_id
+                             WHERE s.job_id = :job AND s.error_message IS NULL
+                            """),
+            "provider_ref",
+            null);
+
+    public ImportResultSummary importAllEntities(MultipartFile file) {
+        ImportContext ctx = new ImportContext();
+        ctx.setEngine(ImportEngine.STAGING);
+        if (SectionReader.isXlsx(file.getOriginalFilename())) {
+            ImportFile spooled = null;
+            try {
+                spooled = ImportFile.spool(file.getInputStream(), file.getOriginalFilename());
+                importAll(spooled.open(null), ctx);
+            } catch (IOException e) {
+                ctx.getSummary().addError("Failed to read workbook: " + e.getMessage());
+            } finally {
+                if (spooled != null) spooled.delete();
+            }
+            return ctx.getSummary();
+        }
+        try (InputStream in = file.getInputStream()) {
+            importAll(in, ctx);
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read CSV: " + e.getMessage());
+        }
+        return ctx.getSummary();
+    }
+
+    /** Import a whole sectioned CSV stream, see {@link #importAll(SectionReader, ImportContext)} */
+    public void importAll(InputStream in, ImportContext ctx) {
+        SectionReader reader;
+        try {
+            reader = CsvSectionReader.open(in);
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read CSV: " + e.getMessage());
+            return;
+        }
+        importAll(reader, ctx);
+    }
+
+    /**
+     * Import a whole sectioned file (CSV or workbook) into {@code ctx}'s summary; closes the reader.
+     * Stops before the next merge once {@link ImportContext#requestCancel()} was called.
+     */
+    public void importAll(SectionReader reader, ImportContext ctx) {
+        importErrorReportService.attach(ctx.getSummary());
+        String jobId = UUID.randomUUID().toString();
+        try (reader) {
+            String section;
+            while (!ctx.isCancelRequested() && (section = reader.nextSection()) != null) {
+                switch (section) {
+                    case "Providers" -> importSection(reader, ctx, jobId, PROVIDERS);
+                    case "Vehicles" -> importSection(reader, ctx, jobId, VEHICLES);
+                    case "NetworkPoints" -> importSection(reader, ctx, jobId, NETWORK_POINTS);
+                    default -> {
+                        // unknown section: its lines are skipped by the next nextSection() call
+                    }
+                }
+            }
+        } catch (IOException e) {
+            ctx.getSummary().addError("Failed to read import file: " + e.getMessage());
+        } finally {
+            clearStage(jobId);
+            ctx.getSummary().closeErrorReport();
+        }
+    }
+
+    private void importSection(SectionReader reader, ImportContext ctx, String jobId, Stage stage) {
+        ImportResultSummary summary = ctx.getSummary();
+        long staged;
+        try {
+            staged = stageSection(reader, ctx, jobId, stage);
+        } catch (Exception e) {
+            summary.addError(stage.label() + " section failed: " + e.getMessage());
+            return;
+        }
+        if (staged == 0 || ctx.isCancelRequested()) return;
+
+        MapSqlParameterSource params = ImportBatchWriter.auditParams(OperationType.CREATE)
+                .addValue("job", jobId)
+                .addValue("today", Date.valueOf(LocalDate.now()))
+                .addValue("password", ImportBatchWriter.DEFAULT_PROVIDER_PASSWORD)
+                .addValue("state", ProviderState.DISABLED.name());
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                stage.prepare().forEach(sql -> jdbc.update(sql, params));
+                for (Rule rule : stage.rules()) {
+                    jdbc.update("UPDATE " + stage.table() + " s SET error_type = '" + rule.type() + "', error_message = " + rule.message()
+                            + " WHERE s.job_id = :job AND s.error_message IS NULL AND (" + rule.failsWhen() + ")", params);
+                }
+                stage.merge().forEach(sql -> jdbc.update(sql, params));
+                if (stage.providerColumn() != null) {
+                    Set<Long> providerIds = new HashSet<>(jdbc.queryForList(
+                            "SELECT DISTINCT " + stage.providerColumn() + " FROM " + stage.table()
+                                    + " WHERE job_id = :job AND error_message IS NULL", params, Long.class));
+                    importBatchWriter.refreshProviderStates(providerIds);
+                }
+                if (stage.searchIndexed() != null) index(stage.searchIndexed(), params);
+            });
+        } catch (Exception e) {
+            summary.addError(stage.label() + " section failed, nothing of it was imported: " + e.getMessage());
+            for (long i = 0; i < staged; i++) summary.incSkipped(stage.section());
+            return;
+        }
+        report(jobId, stage, summary);
+    }
+
+    private <T> void index(SearchIndexed<T> searchIndexed, MapSqlParameterSource params) {
+        searchIndexed.index().accept(vehicleSearchIndex, jdbc.query(searchIndexed.merged(), params, searchIndexed.row()));
+    }
+
+    /**
+     * Bulk-load the section into its staging table. Rows that do not even parse are staged
+     * with their error, so all errors come out in row order.
+     *
+     * @return number of staged rows
+     */
+    private long stageSection(SectionReader reader, ImportContext ctx, String jobId, Stage stage) throws IOException {
+        long staged = 0;
+        List<Object[]> batch = new ArrayList<>(chunkSize);
+        try (Stream<ImportRecord> rows = reader.records()) {
+            for (Iterator<ImportRecord> it = rows.iterator(); it.hasNext(); ) {
+                ImportRecord r = it.next();
+                batch.add(stagedRow(jobId, r, stage));
+                ctx.rowProcessed(stage.section());
+                staged++;
+                if (batch.size() >= chunkSize) {
+                    jdbc.getJdbcTemplate().batchUpdate(stage.insert(), batch);
+                    batch.clear();
+                    if (ctx.isCancelRequested()) return staged;
+                }
+            }
+        }
+        if (!batch.isEmpty()) jdbc.getJdbcTemplate().batchUpdate(stage.insert(), batch);
+        return staged;
+    }
+
+    private static Object[] stagedRow(String jobId, ImportRecord r, Stage stage) {
+        // job_id, record_number, the parsed values, error_type, error_message
+        int columns = stage.values() + 4;
+        Object[] row = new Object[columns];
+        row[0] = jobId;
+        row[1] = r.getRecordNumber();
+        try {
+            Object[] values = stage.parse().apply(r);
+            System.arraycopy(values, 0, row, 2, values.length);
+        } catch (Exception e) {
+            row[columns - 2] = ImportErrorType.INVALID_VALUE.name();
+            row[columns - 1] = e.getMessage();
+        }
+        return row;
+    }
+
+    private void report(String jobId, Stage stage, ImportResultSummary summary) {
+        MapSqlParameterSource job = new MapSqlParameterSource("job", jobId);
+        Integer imported = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM " + stage.table() + " WHERE job_id = :job AND error_message IS NULL", job, Integer.class);
+        summary.addImported(stage.section(), imported != null ? imported : 0);
+        jdbc.query("SELECT record_number, error_type, error_message FROM " + stage.table()
+                        + " WHERE job_id = :job AND error_message IS NOT NULL ORDER BY record_number", job,
+                rs -> {
+                    summary.rowFailed(stage.section(), stage.label(), rs.getLong("record_number"),
+                            ImportErrorType.valueOf(rs.getString("error_type")), rs.getString("error_message"));
+                });
+    }
+
+    private void clearStage(String jobId) {
+        MapSqlParameterSource job = new MapSqlParameterSource("job", jobId);
+        for (Stage stage : List.of(PROVIDERS, VEHICLES, NETWORK_POINTS)) {
+            try {
+                jdbc.update("DELETE FROM " + stage.table() + " WHERE job_id = :job", job);
+            } catch (Exception e) {
+                System.out.println("Could not clear " + stage.table() + " for import " + jobId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // ---------- small utils ----------
+
+    private static Date parseDateSafe(String s) {
+        if (s == null || s.isBlank()) return null;
+        try {
+            return Date.valueOf(LocalDate.parse(s.trim(), DATE_FMT));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static String get(ImportRecord r, String col) {
+        return safeTrim(r.get(col));
+    }
+
+    private static String safeTrim(String s) {
+        return s == null ? null : s.trim();
+    }
+}
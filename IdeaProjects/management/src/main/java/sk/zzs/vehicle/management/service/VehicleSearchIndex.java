@@ -0,0 +1,303 @@
+package sk.zzs.vehicle.management.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import sk.zzs.vehicle.management.entity.Provider;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram index of the texts the vehicle search matches {@code q} against: license plate, VIN,
+ * brand and model of every vehicle ({@code vehicle_search_gram}), name and providerId of every
+ * provider ({@code provider_search_gram}). A gram is three characters of the text folded to
+ * lower case without diacritics, packed into a BIGINT so that no collation gets in the way.
+ *
+ * <p>A text containing {@code q} contains all of {@code q}'s grams, so the vehicles having all of
+ * them (directly or through their provider) are a superset of the LIKE matches. The search
+ * resolves {@code q} to these candidates first and runs its LIKE on them only; {@code q} shorter
+ * than a gram, or matching too much of the registry to be worth it, falls back to the plain scan.
+ *
+ * <p>Kept current by the vehicle and provider entity listeners, the import writers and the
+ * snapshot restore; built from scratch on startup when empty. Every change is passed on to the
+ * in-memory {@link VehicleSuggestIndex} as well.
+ */
+@Service
+@RequiredArgsConstructor
+public class VehicleSearchIndex {
+
+    private static final int GRAM = 3;
+
+    /** Records per query when (re)indexing */
+    private static final int BATCH = 1000;
+
+    /** Gram rows per INSERT statement */
+    private static final int GRAMS_PER_INSERT = 500;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final VehicleSuggestIndex vehicleSuggestIndex;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Above this many candidates {@code q} is not selective and the search scans instead */
+    @Value("${search.index.max-candidates:5000}")
+    private int maxCandidates;
+
+    /** Set once the index covers the registry; until then the search does not use it */
+    private volatile boolean ready;
+
+    /**
+     * Ids of the vehicles (active or archived) that may match {@code q}, or {@code null} when the
+     * index cannot narrow the search down and the caller should match every vehicle.
+     */
+    public Set<Long> candidates(String q) {
+        if (!ready || q == null || q.indexOf('%') >= 0 || q.indexOf('_') >= 0) return null;
+        Set<Long> grams = grams(q);
+        if (grams.isEmpty()) return null;
+
+        MapSqlParameterSource params = new MapSqlParameterSource("grams", grams)
+                .addValue("n", grams.size())
+                .addValue("limit", maxCandidates + 1);
+        Set<Long> ids = new HashSet<>(jdbc.queryForList("""
+                SELECT vehicle_id FROM vehicle_search_gram
+                 WHERE gram IN (:grams)
+                 GROUP BY vehicle_id HAVING COUNT(*) = :n
+                 LIMIT :limit
+                """, params, Long.class));
+        if (ids.size() > maxCandidates) return null;
+        ids.addAll(jdbc.queryForList("""
+                SELECT v.id FROM vehicle v
+                 WHERE v.provider_id IN (SELECT provider_id FROM provider_search_gram
+                                          WHERE gram IN (:grams)
+                                          GROUP BY provider_id HAVING COUNT(*) = :n)
+                 LIMIT :limit
+                """, params, Long.class));
+        return ids.size() > maxCandidates ? null : ids;
+    }
+
+    /** (Re)index the given vehicles from their stored rows; ids with no row are dropped from the index */
+    @Transactional
+    public void indexVehicles(Collection<Long> vehicleIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(vehicleIds));
+        for (int from = 0; from < ids.size(); from += BATCH) {
+            List<Long> batchIds = ids.subList(from, Math.min(from + BATCH, ids.size()));
+            MapSqlParameterSource batch = new MapSqlParameterSource("ids", batchIds);
+            jdbc.update("DELETE FROM vehicle_search_gram WHERE vehicle_id IN (:ids)", batch);
+            List<Indexed> indexed = new ArrayList<>();
+            List<VehicleSuggestIndex.Entry> suggested = new ArrayList<>();
+            jdbc.query("SELECT id, license_plate, vin_num, brand, model, provider_id, archived FROM vehicle WHERE id IN (:ids)", batch, rs -> {
+                indexed.add(new Indexed(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5)));
+                suggested.add(new VehicleSuggestIndex.Entry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        rs.getObject(6, Long.class), rs.getBoolean(7)));
+            });
+            insertGrams("vehicle_search_gram", "vehicle_id", indexed);
+
+            vehicleSuggestIndex.putVehicles(suggested);
+            List<Long> gone = new ArrayList<>(batchIds);
+            gone.removeAll(indexed.stream().map(Indexed::id).toList());
+            if (!gone.isEmpty()) vehicleSuggestIndex.removeVehicles(gone);
+        }
+    }
+
+    /** (Re)index the given providers from their stored rows; ids with no row are dropped from the index */
+    @Transactional
+    public void indexProviders(Collection<Long> providerIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(providerIds));
+        for (int from = 0; from < ids.size(); from += BATCH) {
+            List<Long> batchIds = ids.subList(from, Math.min(from + BATCH, ids.size()));
+            MapSqlParameterSource batch = new MapSqlParameterSource("ids", batchIds);
+            jdbc.update("DELETE FROM provider_search_gram WHERE provider_id IN (:ids)", batch);
+            Map<Long, String> names = new HashMap<>();
+            insertGrams("provider_search_gram", "provider_id", jdbc.query(
+                    "SELECT id, name, provider_id FROM provider WHERE id IN (:ids)", batch, (rs, i) -> {
+                        names.put(rs.getLong(1), rs.getString(2));
+                        return new Indexed(rs.getLong(1), rs.getString(2), rs.getString(3));
+                    }));
+
+            vehicleSuggestIndex.putProviderNames(names);
+            List<Long> gone = new ArrayList<>(batchIds);
+            gone.removeAll(names.keySet());
+            if (!gone.isEmpty()) vehicleSuggestIndex.removeProviders(gone);
+        }
+    }
+
+    /** A vehicle as its importer has just inserted it */
+    public record NewVehicle(long id, String licensePlate, String vinNum, String brand, String model, Long providerId) {
+    }
+
+    /** A provider as its importer has just inserted it */
+    public record NewProvider(long id, String name, String providerId) {
+    }
+
+    /**
+     * Index vehicles just inserted from the values written: a new id has no grams to delete yet,
+     * and its row does not have to be read back.
+     */
+    @Transactional
+    public void indexNewVehicles(List<NewVehicle> vehicles) {
+        insertGrams("vehicle_search_gram", "vehicle_id", vehicles.stream()
+                .map(v -> new Indexed(v.id(), v.licensePlate(), v.vinNum(), v.brand(), v.model()))
+                .toList());
+        vehicleSuggestIndex.putVehicles(vehicles.stream()
+                .map(v -> new VehicleSuggestIndex.Entry(v.id(), v.licensePlate(), v.vinNum(), v.providerId(), false))
+                .toList());
+    }
+
+    /** Index providers just inserted from the values written, see {@link #indexNewVehicles} */
+    @Transactional
+    public void indexNewProviders(List<NewProvider> providers) {
+        insertGrams("provider_search_gram", "provider_id", providers.stream()
+                .map(p -> new Indexed(p.id(), p.name(), p.providerId()))
+                .toList());
+        Map<Long, String> names = new HashMap<>();
+        for (NewProvider p : providers) names.put(p.id(), p.name());
+        vehicleSuggestIndex.putProviderNames(names);
+    }
+
+    /** Index one vehicle as the entity listener sees it, without reading it back */
+    public void indexVehicle(Vehicle vehicle) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", List.of(vehicle.getId()));
+        jdbc.update("DELETE FROM vehicle_search_gram WHERE vehicle_id IN (:ids)", params);
+        insertGrams("vehicle_search_gram", "vehicle_id", List.of(new Indexed(vehicle.getId(),
+                vehicle.getLicensePlate(), vehicle.getVinNum(), vehicle.getBrand(), vehicle.getModel())));
+
+        vehicleSuggestIndex.putVehicles(List.of(new VehicleSuggestIndex.Entry(vehicle.getId(),
+                vehicle.getLicensePlate(), vehicle.getVinNum(),
+                vehicle.getProvider() != null ? vehicle.getProvider().getId() : null, vehicle.isArchived())));
+    }
+
+    /** Index one provider as the entity listener sees it, without reading it back */
+    public void indexProvider(Provider provider) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", List.of(provider.getId()));
+        jdbc.update("DELETE FROM provider_search_gram WHERE provider_id IN (:ids)", params);
+        insertGrams("provider_search_gram", "provider_id",
+                List.of(new Indexed(provider.getId(), provider.getName(), provider.getProviderId())));
+
+        vehicleSuggestIndex.putProviderNames(Map.of(provider.getId(), provider.getName()));
+    }
+
+    public void removeVehicle(Long id) {
+        jdbc.update("DELETE FROM vehicle_search_gram WHERE vehicle_id = :id", new MapSqlParameterSource("id", id));
+        vehicleSuggestIndex.removeVehicles(List.of(id));
+    }
+
+    public void removeProvider(Long id) {
+        jdbc.update("DELETE FROM provider_search_gram WHERE provider_id = :id", new MapSqlParameterSource("id", id));
+        vehicleSuggestIndex.removeProviders(List.of(id));
+    }
+
+    /**
+     * Build the index when it is empty but the registry is not, e.g. on the first start after an
+     * upgrade; load the in-memory suggest index, which starts out empty on every start.
+     */
+    public void rebuildIfEmpty() {
+        boolean indexEmpty = isEmpty("vehicle_search_gram") && isEmpty("provider_search_gram");
+        if (indexEmpty && !(isEmpty("vehicle") && isEmpty("provider"))) {
+            rebuild();
+        } else {
+            vehicleSuggestIndex.load();
+        }
+        ready = true;
+    }
+
+    /** Drop the index and build it again from every vehicle and provider */
+    public void rebuild() {
+        ready = false;
+        long start = System.currentTimeMillis();
+        jdbc.getJdbcTemplate().update("DELETE FROM vehicle_search_gram");
+        jdbc.getJdbcTemplate().update("DELETE FROM provider_search_gram");
+        long vehicles = reindexAll("SELECT id FROM vehicle WHERE id > :after ORDER BY id LIMIT :limit", this::indexVehicles);
+        long providers = reindexAll("SELECT id FROM provider WHERE id > :after ORDER BY id LIMIT :limit", this::indexProviders);
+        System.out.println("Search index rebuilt: " + vehicles + " vehicles, " + providers + " providers in "
+                + (System.currentTimeMillis() - start) + " ms");
+        // drops whatever the suggest index still holds of rows that are gone
+        vehicleSuggestIndex.load();
+        ready = true;
+    }
+
+    /**
+     * Grams of {@code text}: every run of three characters after case and diacritics are folded,
+     * each packed into a long (three UTF-16 units of 16 bits). Empty for texts shorter than a gram.
+     */
+    static Set<Long> grams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        addGrams(text, grams);
+        return grams;
+    }
+
+    private static void addGrams(String text, Set<Long> grams) {
+        if (text == null) return;
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(((long) folded.charAt(i) << 32) | ((long) folded.charAt(i + 1) << 16) | folded.charAt(i + 2));
+        }
+    }
+
+    private record Indexed(long id, String... texts) {
+    }
+
+    /**
+     * Insert the grams of {@code records} with multi-row INSERTs, a few hundred rows per statement:
+     * a record has a few dozen grams, one statement per gram would outnumber the imported rows many times.
+     */
+    private void insertGrams(String table, String idColumn, List<Indexed> records) {
+        List<Object> values = new ArrayList<>();
+        for (Indexed r : records) {
+            Set<Long> grams = new HashSet<>();
+            for (String text : r.texts()) addGrams(text, grams);
+            for (Long gram : grams) {
+                values.add(gram);
+                values.add(r.id());
+            }
+        }
+        for (int from = 0; from < values.size(); from += 2 * GRAMS_PER_INSERT) {
+            List<Object> part = values.subList(from, Math.min(from + 2 * GRAMS_PER_INSERT, values.size()));
+            jdbc.getJdbcTemplate().update("INSERT INTO " + table + " (gram, " + idColumn + ") VALUES "
+                    + String.join(", ", Collections.nCopies(part.size() / 2, "(?, ?)")), part.toArray());
+        }
+    }
+
+    /**
+     * Index every id {@code idPage} returns, a page at a time, each page in a transaction of its own:
+     * called on this bean directly, the {@code @Transactional} of {@code index} does not apply.
+     */
+    private long reindexAll(String idPage, Consumer<List<Long>> index) {
+        TransactionTemplate batch = new TransactionTemplate(transactionManager);
+        long total = 0;
+        long after = 0;
+        List<Long> ids;
+        do {
+            ids = jdbc.queryForList(idPage, new MapSqlParameterSource("after", after).addValue("limit", BATCH), Long.class);
+            if (!ids.isEmpty()) {
+                List<Long> page = ids;
+                batch.executeWithoutResult(status -> index.accept(page));
+                total += ids.size();
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == BATCH);
+        return total;
+    }
+
+    private boolean isEmpty(String table) {
+        return jdbc.getJdbcTemplate().queryForList("SELECT 1 FROM " + table + " LIMIT 1").isEmpty();
+    }
+}
@@ -4,18 +4,28 @@ import jakarta.persistence.NoResultException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.dto.CursorPage;
+import sk.zzs.vehicle.management.dto.VehicleCursor;
 import sk.zzs.vehicle.management.dto.VehicleDto;
 import sk.zzs.vehicle.management.dto.VehicleFilter;
 import sk.zzs.vehicle.management.dto.VehicleMapper;
+import sk.zzs.vehicle.management.dto.VehicleMatch;
+import sk.zzs.vehicle.management.dto.VehicleSuggestion;
 import sk.zzs.vehicle.management.entity.Provider;
 import sk.zzs.vehicle.management.entity.Vehicle;
 import sk.zzs.vehicle.management.entity.VehicleLog;
+import sk.zzs.vehicle.management.enumer.IncludeTotal;
 import sk.zzs.vehicle.management.enumer.OperationType;
 import sk.zzs.vehicle.management.repository.VehicleLogRepository;
 import sk.zzs.vehicle.management.repository.VehicleRepository;
@@ -46,21 +56,120 @@ public class VehicleService {
     @Lazy
     private ProviderService providerService;
 
+    @Autowired
+    private ListingCountCache listingCountCache;
+
+    @Autowired
+    private VehicleSearchIndex vehicleSearchIndex;
+
+    @Autowired
+    private VehicleSuggestIndex vehicleSuggestIndex;
+
     // Base folder where files will be stored (adjust for your OS/env)
     private static final Path BASE_UPLOAD_DIR = Paths.get("C:/uploads/vehicles");
 
+    /** Largest page of the keyset-paged search */
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MAX_FUZZY_DISTANCE = 3;
+
+    /** Vehicle ids per file path query */
+    private static final int FILE_PATH_BATCH = 1000;
+
     @Transactional(readOnly = true)
     public List<VehicleDto> getAllVehicles() {
-        return vehicleRepository.findAll()
-                .stream()
-                .map(vehicleMapper::toDto)
-                .toList();
+        List<VehicleDto> vehicles = vehicleMapper.toDtos(vehicleRepository.findAll());
+        attachFilePaths(vehicles);
+        return vehicles;
+    }
+
+    /**
+     * Vehicles matching {@code filter}, read as listing rows in one joined select (see
+     * {@link VehicleRepository#findListingRows}). The total is an exact COUNT, the cached count of
+     * the same filter, or left out ({@link Slice} that only knows whether there is a next page).
+     * File paths are added with one extra query for the whole page when {@code includeFiles}.
+     */
+    @Transactional(readOnly = true)
+    public Slice<VehicleDto> search(VehicleFilter filter, Pageable pageable, IncludeTotal includeTotal, boolean includeFiles) {
+        Specification<Vehicle> spec = filterSpec(filter);
+        Slice<VehicleDto> rows = vehicleRepository.findListingRows(spec, pageable);
+        if (includeFiles) {
+            attachFilePaths(rows.getContent());
+        }
+        return switch (includeTotal) {
+            case EXACT -> PageableExecutionUtils.getPage(rows.getContent(), pageable, () -> vehicleRepository.count(spec));
+            case NONE -> rows;
+            case ESTIMATE -> listingCountCache.withEstimatedTotal(rows, "vehicles:" + filter, () -> vehicleRepository.count(spec));
+        };
+    }
+
+    /** The search filter, with {@code q} narrowed down to the search index's candidates when it can */
+    private Specification<Vehicle> filterSpec(VehicleFilter filter) {
+        Set<Long> candidates = filter != null ? vehicleSearchIndex.candidates(filter.q()) : null;
+        return VehicleSpecifications.withFilter(filter, candidates);
     }
 
-    public Page<VehicleDto> search(VehicleFilter filter, Pageable pageable) {
-        return vehicleRepository
-                .findAll(VehicleSpecifications.withFilter(filter), pageable)
-                .map(vehicleMapper::toDto);
+    /** Fills {@code filePaths} of the given vehicles with one query per {@value #FILE_PATH_BATCH} of them */
+    private void attachFilePaths(List<VehicleDto> vehicles) {
+        Map<Long, VehicleDto> byId = new HashMap<>();
+        for (VehicleDto v : vehicles) {
+            v.setFilePaths(new ArrayList<>());
+            byId.put(v.getId(), v);
+        }
+        List<Long> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += FILE_PATH_BATCH) {
+            List<Long> batch = ids.subList(from, Math.min(from + FILE_PATH_BATCH, ids.size()));
+            for (Object[] row : vehicleRepository.findFilePathsByVehicleIds(batch)) {
+                byId.get(((Number) row[0]).longValue()).getFilePaths().add((String) row[1]);
+            }
+        }
+    }
+
+    /**
+     * Same filters as {@link #search}, paged by keyset: {@code cursor} is the nextCursor of the
+     * previous page ({@code null} for the first page) and fixes the sort, {@code sort} is only
+     * read for the first page.
+     */
+    public CursorPage<VehicleDto> searchAfter(VehicleFilter filter, String cursor, String sort, int size, boolean includeFiles) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        VehicleCursor position = cursor != null && !cursor.isBlank()
+                ? VehicleCursor.decode(cursor)
+                : VehicleCursor.start(sort);
+
+        // one row more than asked for tells whether there is a next page
+        List<Vehicle> rows = vehicleRepository.findAfter(filterSpec(filter), position, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<Vehicle> page = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? position.after(page.get(page.size() - 1)).encode() : null;
+        List<VehicleDto> content = vehicleMapper.toDtos(page);
+        if (includeFiles) {
+            attachFilePaths(content);
+        }
+        return new CursorPage<>(content, nextCursor);
+    }
+
+    /** Typeahead: vehicles, archived included, whose plate or VIN starts with {@code prefix}, from memory */
+    public List<VehicleSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return vehicleSuggestIndex.suggest(prefix, limit);
+    }
+
+    /** Vehicles, archived included, whose plate or VIN is at most {@code maxDistance} typos from {@code q}, from memory */
+    public List<VehicleMatch> fuzzy(String q, int maxDistance, int limit) {
+        if (maxDistance < 0 || maxDistance > MAX_FUZZY_DISTANCE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxDistance must be between 0 and " + MAX_FUZZY_DISTANCE);
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return vehicleSuggestIndex.fuzzy(q, maxDistance, limit);
     }
 
     public VehicleDto registerVehicle(VehicleDto dto) {
@@ -321,8 +430,26 @@ public class VehicleService {
         return vehicleMapper.toDto(v);
     }
 
-    public Page<VehicleDto> getArchived(Pageable pageable) {
-        return vehicleRepository.findArchivedNative(pageable).map(vehicleMapper::toDto);
+    public Slice<VehicleDto> getArchived(Pageable pageable, IncludeTotal includeTotal, boolean includeFiles) {
+        Slice<Vehicle> vehicles = switch (includeTotal) {
+            case EXACT -> vehicleRepository.findArchivedNative(pageable);
+            case NONE -> vehicleRepository.findArchivedSliceNative(pageable);
+            case ESTIMATE -> listingCountCache.withEstimatedTotal(
+                    vehicleRepository.findArchivedSliceNative(pageable),
+                    "vehicles:archived", vehicleRepository::countArchivedNative);
+        };
+        return toDtos(vehicles, includeFiles);
+    }
+
+    /** Maps a page of vehicles with {@link VehicleMapper#toDtos}, keeping its total if it has one */
+    private Slice<VehicleDto> toDtos(Slice<Vehicle> vehicles, boolean includeFiles) {
+        List<VehicleDto> dtos = vehicleMapper.toDtos(vehicles.getContent());
+        if (includeFiles) {
+            attachFilePaths(dtos);
+        }
+        return vehicles instanceof Page<Vehicle> page
+                ? new PageImpl<>(dtos, page.getPageable(), page.getTotalElements())
+                : new SliceImpl<>(dtos, vehicles.getPageable(), vehicles.hasNext());
     }
 
     public VehicleDto getArchivedById(Long id) {
@@ -0,0 +1,284 @@
+package sk.zzs.vehicle.management.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import sk.zzs.vehicle.management.dto.VehicleMatch;
+import sk.zzs.vehicle.management.dto.VehicleSuggestion;
+import sk.zzs.vehicle.management.util.VehicleKeys;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory plate and VIN index behind the typeahead and the fuzzy lookup: every vehicle,
+ * archived ones included, under the {@link VehicleKeys#normalize normalized} form of its plate
+ * and of its VIN, in a sorted map, so the vehicles whose plate or VIN starts with a prefix are
+ * one range of it. For the fuzzy lookup every vehicle is also listed under the bigrams of both
+ * keys. Neither lookup touches the database.
+ *
+ * <p>Loaded on startup and kept current by {@link VehicleSearchIndex}, which every vehicle and
+ * provider write already goes through. Changes made in a transaction show up once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+public class VehicleSuggestIndex {
+
+    /** What a suggestion shows of a vehicle, plus its normalized plate and VIN */
+    record Entry(long id, String licensePlate, String vinNum, Long providerId, boolean archived,
+                 String plateKey, String vinKey) {
+        Entry(long id, String licensePlate, String vinNum, Long providerId, boolean archived) {
+            this(id, licensePlate, vinNum, providerId, archived,
+                    VehicleKeys.normalize(licensePlate), VehicleKeys.normalize(vinNum));
+        }
+    }
+
+    /**
+     * @param keys          normalized plate or VIN + NUL + vehicle id, to the vehicle id; NUL sorts
+     *                      before every key character, so exact matches come before longer keys
+     * @param grams         ids of the vehicles whose plate or VIN key has the bigram, see {@link #grams}
+     * @param providerNames provider names by id, archived providers included
+     */
+    private record State(ConcurrentSkipListMap<String, Long> keys, Map<Long, Entry> vehicles,
+                         Map<Integer, Set<Long>> grams, Map<Long, String> providerNames) {
+        State() {
+            this(new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+    }
+
+    /** A match of the fuzzy lookup and the edit distance of its closer key from the query */
+    private record Scored(Entry vehicle, int distance, String key) {
+    }
+
+    private final JdbcTemplate jdbc;
+
+    private volatile State state = new State();
+
+    /**
+     * Up to {@code limit} vehicles whose normalized plate or VIN starts with the normalized
+     * {@code prefix}, in key order: the shortest, i.e. closest, matches first.
+     */
+    public List<VehicleSuggestion> suggest(String prefix, int limit) {
+        String key = VehicleKeys.normalize(prefix);
+        if (key.isEmpty()) return List.of();
+
+        State s = state;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> e : s.keys().tailMap(key).entrySet()) {
+            if (ids.size() >= limit || !e.getKey().startsWith(key)) break;
+            ids.add(e.getValue());
+        }
+
+        List<VehicleSuggestion> suggestions = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Entry v = s.vehicles().get(id);
+            if (v == null) continue; // removed meanwhile
+            suggestions.add(toSuggestion(s, v));
+        }
+        return suggestions;
+    }
+
+    /**
+     * Up to {@code limit} vehicles whose normalized plate or VIN is at most {@code maxDistance}
+     * edits (Levenshtein) from the normalized {@code query}, closest first.
+     *
+     * <p>A key within d edits of the query still has all but at most 2d of the query's distinct
+     * bigrams, since one edit breaks at most two of them. So it is listed under at least one of
+     * any 2d + 1 of them: the vehicles under the 2d + 1 rarest bigrams of the query that are
+     * listed under enough of the others are the candidates, and only they are compared with the
+     * query. Queries too short for that are compared with every key.
+     */
+    public List<VehicleMatch> fuzzy(String query, int maxDistance, int limit) {
+        String key = VehicleKeys.normalize(query);
+        if (key.isEmpty()) return List.of();
+
+        State s = state;
+        Collection<Entry> candidates;
+        List<Set<Long>> postings = grams(key).stream()
+                .map(g -> s.grams().getOrDefault(g, Set.of()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .toList();
+        if (postings.size() > 2 * maxDistance) {
+            int needed = postings.size() - 2 * maxDistance;
+            Set<Long> seen = new HashSet<>();
+            candidates = new ArrayList<>();
+            for (Set<Long> posting : postings.subList(0, 2 * maxDistance + 1)) {
+                for (Long id : posting) {
+                    if (!seen.add(id) || !hasGrams(postings, id, needed)) continue;
+                    Entry v = s.vehicles().get(id);
+                    if (v != null) candidates.add(v);
+                }
+            }
+        } else {
+            candidates = s.vehicles().values();
+        }
+
+        List<Scored> matches = new ArrayList<>();
+        for (Entry v : candidates) {
+            int toPlate = v.plateKey().isEmpty() ? maxDistance + 1 : distance(key, v.plateKey(), maxDistance);
+            int toVin = v.vinKey().isEmpty() ? maxDistance + 1 : distance(key, v.vinKey(), maxDistance);
+            int d = Math.min(toPlate, toVin);
+            if (d <= maxDistance) {
+                matches.add(new Scored(v, d, toPlate <= toVin ? v.plateKey() : v.vinKey()));
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingInt(Scored::distance).thenComparing(Scored::key)
+                        .thenComparingLong(m -> m.vehicle().id()))
+                .limit(limit)
+                .map(m -> new VehicleMatch(toSuggestion(s, m.vehicle()), m.distance()))
+                .toList();
+    }
+
+    /** Whether {@code id} is listed under at least {@code needed} of the query's bigrams */
+    private static boolean hasGrams(List<Set<Long>> postings, Long id, int needed) {
+        int shared = 0;
+        for (int i = 0; i < postings.size() && shared + postings.size() - i >= needed; i++) {
+            if (postings.get(i).contains(id) && ++shared >= needed) return true;
+        }
+        return false;
+    }
+
+    private static VehicleSuggestion toSuggestion(State s, Entry v) {
+        String providerName = v.providerId() != null ? s.providerNames().get(v.providerId()) : null;
+        return new VehicleSuggestion(v.id(), v.licensePlate(), v.vinNum(), v.providerId(), providerName, v.archived());
+    }
+
+    /** Replace the whole index with every vehicle and provider in the database */
+    public void load() {
+        long start = System.currentTimeMillis();
+        State loaded = new State();
+        jdbc.query("SELECT id, license_plate, vin_num, provider_id, archived FROM vehicle", rs -> {
+            put(loaded, new Entry(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getObject(4, Long.class), rs.getBoolean(5)));
+        });
+        jdbc.query("SELECT id, name FROM provider", rs -> {
+            loaded.providerNames().put(rs.getLong(1), rs.getString(2));
+        });
+        synchronized (this) {
+            state = loaded;
+        }
+        System.out.println("Suggest index loaded: " + loaded.vehicles().size() + " vehicles in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    void putVehicles(List<Entry> vehicles) {
+        afterCommit(() -> {
+            synchronized (this) {
+                for (Entry v : vehicles) put(state, v);
+            }
+        });
+    }
+
+    void removeVehicles(List<Long> ids) {
+        afterCommit(() -> {
+            synchronized (this) {
+                for (Long id : ids) remove(state, id);
+            }
+        });
+    }
+
+    void putProviderNames(Map<Long, String> names) {
+        afterCommit(() -> state.providerNames().putAll(names));
+    }
+
+    void removeProviders(List<Long> ids) {
+        afterCommit(() -> state.providerNames().keySet().removeAll(ids));
+    }
+
+    private static void put(State s, Entry v) {
+        remove(s, v.id());
+        s.vehicles().put(v.id(), v);
+        if (!v.plateKey().isEmpty()) s.keys().put(v.plateKey() + '\0' + v.id(), v.id());
+        if (!v.vinKey().isEmpty()) s.keys().put(v.vinKey() + '\0' + v.id(), v.id());
+        for (Integer gram : grams(v)) {
+            s.grams().computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(v.id());
+        }
+    }
+
+    private static void remove(State s, long id) {
+        Entry old = s.vehicles().remove(id);
+        if (old != null) {
+            s.keys().remove(old.plateKey() + '\0' + id);
+            s.keys().remove(old.vinKey() + '\0' + id);
+            for (Integer gram : grams(old)) {
+                Set<Long> posting = s.grams().get(gram);
+                if (posting != null) posting.remove(id);
+            }
+        }
+    }
+
+    private static Set<Integer> grams(Entry v) {
+        Set<Integer> grams = grams(v.plateKey());
+        grams.addAll(grams(v.vinKey()));
+        return grams;
+    }
+
+    /**
+     * Distinct bigrams of a key with a start and an end marker around it, each packed into an int,
+     * so that the first and last characters count as much as the inner ones. Empty for an empty key.
+     */
+    static Set<Integer> grams(String key) {
+        Set<Integer> grams = new HashSet<>();
+        if (key.isEmpty()) return grams;
+        String padded = '^' + key + '$';
+        for (int i = 0; i + 1 < padded.length(); i++) {
+            grams.add(padded.charAt(i) << 16 | padded.charAt(i + 1));
+        }
+        return grams;
+    }
+
+    /**
+     * Levenshtein distance of {@code a} and {@code b}, or {@code max + 1} as soon as it is known to
+     * be more than {@code max}; only the diagonal band {@code max} wide is computed.
+     */
+    static int distance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            cur[0] = i;
+            if (from > 1) cur[from - 1] = max + 1;
+            int rowMin = from > 1 ? max + 1 : i;
+            for (int j = from; j <= to; j++) {
+                int sub = prev[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                int del = j <= i + max - 1 ? prev[j] + 1 : max + 1;
+                int ins = cur[j - 1] + 1;
+                cur[j] = Math.min(sub, Math.min(del, ins));
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return Math.min(prev[b.length()], max + 1);
+    }
+
+    /** Runs {@code change} once the current transaction commits (dropped on rollback), or now without one */
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
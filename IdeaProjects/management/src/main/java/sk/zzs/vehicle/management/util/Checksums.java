@@ -0,0 +1,53 @@
+package sk.zzs.vehicle.management.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class Checksums {
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** Hex SHA-256 of the whole stream; the stream is read to the end but not closed */
+    public static String sha256Hex(InputStream in) throws IOException {
+        MessageDigest md = sha256();
+        byte[] buf = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            md.update(buf, 0, n);
+        }
+        return hex(md);
+    }
+
+    public static String sha256Hex(String s) {
+        MessageDigest md = sha256();
+        md.update(s.getBytes(StandardCharsets.UTF_8));
+        return hex(md);
+    }
+
+    /**
+     * Hash of a record's content, for telling whether two versions differ.
+     * Fields are separated by a control character and nulls have their own marker,
+     * so ("a", null) and (null, "a") or ("ab", "") and ("a", "b") hash differently.
+     */
+    public static String contentHash(Object... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (Object f : fields) {
+            sb.append(f == null ? "\u0000" : f.toString()).append('\u001F');
+        }
+        return sha256Hex(sb.toString());
+    }
+
+    public static String hex(MessageDigest md) {
+        return HexFormat.of().formatHex(md.digest());
+    }
+}
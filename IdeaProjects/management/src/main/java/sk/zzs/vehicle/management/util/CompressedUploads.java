@@ -0,0 +1,119 @@
+package sk.zzs.vehicle.management.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Import uploads may be plain CSV, gzip ({@code .csv.gz}) or a zip of CSV files.
+ * The format is told from the first bytes, not the file name, and the content is
+ * decompressed while it is read, so nothing is unpacked to memory or disk first.
+ */
+public class CompressedUploads {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private CompressedUploads() {
+    }
+
+    /** File names the import endpoints accept; .xlsx workbooks are read by {@link XlsxSectionReader} */
+    public static boolean isSupported(String filename) {
+        if (filename == null) return false;
+        String name = filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".csv") || name.endsWith(".csv.gz") || name.endsWith(".zip") || name.endsWith(".xlsx");
+    }
+
+    /** The CSV content of an upload, decompressed on the fly when it is gzip or zip */
+    public static InputStream decompress(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        in.mark(4);
+        byte[] magic = in.readNBytes(4);
+        in.reset();
+
+        if (magic.length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        if (isZip(magic)) {
+            return new ZipCsvInputStream(new ZipInputStream(in));
+        }
+        return in;
+    }
+
+    public static boolean isZip(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return isZip(in.readNBytes(4));
+        }
+    }
+
+    private static boolean isZip(byte[] magic) {
+        return magic.length == 4 && magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4;
+    }
+
+    /** Zip entries that are imported; directories and other files (e.g. the __MACOSX folder a Mac adds) are not */
+    public static boolean isCsvEntry(ZipEntry entry) {
+        String name = entry.getName();
+        return !entry.isDirectory()
+                && !name.startsWith("__MACOSX/")
+                && name.toLowerCase(Locale.ROOT).endsWith(".csv");
+    }
+
+    /**
+     * The .csv entries of a zip one after the other, with a line break between them so the
+     * last line of one file never runs into the first line of the next.
+     */
+    private static class ZipCsvInputStream extends InputStream {
+
+        private final ZipInputStream zip;
+        private boolean inEntry;
+        private boolean separatorPending;
+        private boolean finished;
+
+        ZipCsvInputStream(ZipInputStream zip) {
+            this.zip = zip;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (!finished) {
+                if (separatorPending) {
+                    separatorPending = false;
+                    b[off] = '\n';
+                    return 1;
+                }
+                if (inEntry) {
+                    int n = zip.read(b, off, len);
+                    if (n > 0) return n;
+                    inEntry = false;
+                    separatorPending = true;
+                    continue;
+                }
+                ZipEntry entry = zip.getNextEntry();
+                if (entry == null) {
+                    finished = true;
+                } else if (isCsvEntry(entry)) {
+                    inEntry = true;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package sk.zzs.vehicle.management.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Single-pass reader for the sectioned import format:
+ *
+ * <pre>
+ * [Providers]
+ * providerId,name,email,address
+ * ...
+ * [Vehicles]
+ * vin_num,brand,model,...
+ * </pre>
+ *
+ * Lines are pulled from the underlying reader one at a time, so memory use does not
+ * depend on the size of the file. Section markers are recognized even when a spreadsheet
+ * export glued them to the previous/next line or padded them with commas, and blank or
+ * comma-only lines are dropped.
+ */
+public class CsvSectionReader implements SectionReader {
+
+    /** How much of the upload is inspected to pick its charset */
+    private static final int CHARSET_SNIFF_BYTES = 64 * 1024;
+
+    /** Markers that may appear in the middle of a line and still start a new section */
+    private static final Pattern INLINE_MARKER = Pattern.compile("\\[(Providers|Vehicles|NetworkPoints)]");
+
+    private final BufferedReader in;
+
+    /** Lines already split out of a raw line (marker + text around it) but not consumed yet */
+    private final Deque<Token> pending = new ArrayDeque<>();
+
+    /** Marker that ended the previous section body and has not been returned by {@link #nextSection()} yet */
+    private String pendingSection;
+
+    /** Whether the body of the current section still has unread lines */
+    private boolean inSection;
+
+    public CsvSectionReader(Reader reader) {
+        this.in = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+    }
+
+    /**
+     * Open an upload, plain or compressed (see {@link CompressedUploads}). The charset is decided
+     * from the first block of bytes: strict UTF-8 if that block decodes cleanly, otherwise
+     * windows-1250 (what Excel uses for Slovak text when saving as CSV). The rest of the file
+     * is decoded on the fly.
+     */
+    public static CsvSectionReader open(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(CompressedUploads.decompress(raw), CHARSET_SNIFF_BYTES);
+        in.mark(CHARSET_SNIFF_BYTES);
+        byte[] head = in.readNBytes(CHARSET_SNIFF_BYTES);
+        in.reset();
+
+        Charset cs = isValidUtf8(head) ? StandardCharsets.UTF_8 : Charset.forName("windows-1250");
+        return new CsvSectionReader(new InputStreamReader(in, cs));
+    }
+
+    private static boolean isValidUtf8(byte[] head) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(head.length);
+        // endOfInput=false: a multi-byte character cut at the end of the block is not an error
+        return !decoder.decode(ByteBuffer.wrap(head), out, false).isError();
+    }
+
+    /**
+     * Advance to the next section marker, skipping whatever is left of the current section.
+     *
+     * @return section name without brackets, or {@code null} at the end of input
+     */
+    @Override
+    public String nextSection() throws IOException {
+        if (pendingSection != null) {
+            String s = pendingSection;
+            pendingSection = null;
+            inSection = true;
+            return s;
+        }
+
+        Token t;
+        while ((t = nextToken()) != null) {
+            if (t.section() != null) {
+                inSection = true;
+                return t.section();
+            }
+        }
+        inSection = false;
+        return null;
+    }
+
+    /**
+     * Build a CSVParser for the body of the current section, cleaning the header by removing
+     * trailing empty columns. This avoids "A header name is missing" when the header has extra commas.
+     * Records are read lazily and the parser stops at the next section marker.
+     *
+     * @return parser over the section rows, or {@code null} when the section has no lines at all
+     */
+    public CSVParser openSection() throws IOException {
+        if (!inSection) {
+            return null;
+        }
+
+        // 1) Take raw header line
+        Token header = nextToken();
+        if (header == null) {
+            inSection = false;
+            return null;
+        }
+        if (header.section() != null) {
+            pendingSection = header.section();
+            inSection = false;
+            return null;
+        }
+        String headerLine = header.text();
+
+        // 2) Parse that single line to get header fields honoring quotes
+        List<String> headerFields = new ArrayList<>();
+        try (CSVParser headerParser = CSVParser.parse(headerLine, CSVFormat.DEFAULT)) {
+            for (CSVRecord rec : headerParser) {
+                for (String v : rec) headerFields.add(v == null ? "" : v.trim());
+            }
+        }
+
+        // 3) Remove trailing empty header names (caused by extra commas)
+        while (!headerFields.isEmpty() && (headerFields.get(headerFields.size() - 1).isBlank())) {
+            headerFields.remove(headerFields.size() - 1);
+        }
+
+        if (headerFields.isEmpty()) {
+            throw new IllegalArgumentException("Section header is empty or invalid: '" + headerLine + "'");
+        }
+
+        // 4) Stream the header line back followed by the section body, skipping the first row,
+        //    so record numbers stay the same as when the section was parsed in one piece
+        CSVFormat fmt = CSVFormat.DEFAULT
+                .withHeader(headerFields.toArray(new String[0]))
+                .withSkipHeaderRecord(true)
+                .withTrim();
+
+        return new CSVParser(new SectionBodyReader(headerLine), fmt);
+    }
+
+    /** Records of {@link #openSection()}; the parser needs no closing, the body reader does not own the input */
+    @Override
+    public Stream<ImportRecord> records() throws IOException {
+        CSVParser parser = openSection();
+        if (parser == null) {
+            return Stream.empty();
+        }
+        return parser.stream().map(CsvRecord::new);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private record CsvRecord(CSVRecord record) implements ImportRecord {
+
+        @Override
+        public long getRecordNumber() {
+            return record.getRecordNumber();
+        }
+
+        @Override
+        public String get(String column) {
+            return record.isMapped(column) ? record.get(column) : null;
+        }
+    }
+
+    // ---------- line splitting ----------
+
+    private Token nextToken() throws IOException {
+        while (pending.isEmpty()) {
+            String raw = in.readLine();
+            if (raw == null) {
+                return null;
+            }
+            if (!raw.isEmpty() && raw.charAt(0) == '\uFEFF') {
+                raw = raw.substring(1); // UTF-8 BOM, every file of a zip may start with one
+            }
+            splitLine(raw);
+        }
+        return pending.poll();
+    }
+
+    private void splitLine(String raw) {
+        String line = raw.trim();
+        if (isBlankOrCommas(line)) {
+            return;
+        }
+
+        // Detect a marker even if original line had extra commas after it
+        String firstToken = line.split(",", 2)[0].trim();
+        if (firstToken.startsWith("[") && firstToken.endsWith("]")) {
+            pending.add(Token.marker(firstToken.substring(1, firstToken.length() - 1)));
+            addLineAfterMarker(line.substring(line.indexOf(']') + 1));
+            return;
+        }
+
+        // Marker glued to other content: put text before and after it on their own lines
+        Matcher m = INLINE_MARKER.matcher(raw);
+        int from = 0;
+        while (m.find()) {
+            String before = raw.substring(from, m.start());
+            if (!isBlankOrCommas(before)) {
+                pending.add(Token.line(before.stripTrailing()));
+            }
+            pending.add(Token.marker(m.group(1)));
+            from = m.end();
+        }
+        if (from == 0) {
+            pending.add(Token.line(raw));
+        } else {
+            addLineAfterMarker(raw.substring(from));
+        }
+    }
+
+    private void addLineAfterMarker(String text) {
+        // drop the commas that padded the marker cell
+        String t = text.replaceFirst("^[\\s,]+", "");
+        if (!isBlankOrCommas(t)) {
+            pending.add(Token.line(t));
+        }
+    }
+
+    private static boolean isBlankOrCommas(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != ',' && !Character.isWhitespace(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Token(String section, String text) {
+        static Token marker(String section) { return new Token(section, null); }
+        static Token line(String text) { return new Token(null, text); }
+    }
+
+    /**
+     * Exposes the lines of the current section as a character stream ending at the next marker.
+     * Closing it does not close the underlying input, the next section is read from it later.
+     */
+    private class SectionBodyReader extends Reader {
+
+        private String current;
+        private int pos;
+        private boolean done;
+
+        SectionBodyReader(String firstLine) {
+            this.current = firstLine + "\n";
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (current == null || pos >= current.length()) {
+                if (done || !advance()) {
+                    return -1;
+                }
+            }
+            int n = Math.min(len, current.length() - pos);
+            current.getChars(pos, pos + n, buf, off);
+            pos += n;
+            return n;
+        }
+
+        private boolean advance() throws IOException {
+            Token t = nextToken();
+            if (t == null) {
+                done = true;
+                inSection = false;
+                return false;
+            }
+            if (t.section() != null) {
+                pendingSection = t.section();
+                done = true;
+                inSection = false;
+                return false;
+            }
+            current = t.text() + "\n";
+            pos = 0;
+            return true;
+        }
+
+        @Override
+        public void close() {
+            // the underlying input belongs to CsvSectionReader
+        }
+    }
+}
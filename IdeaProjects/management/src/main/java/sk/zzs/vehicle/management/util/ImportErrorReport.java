@@ -0,0 +1,65 @@
+package sk.zzs.vehicle.management.util;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import sk.zzs.vehicle.management.enumer.ImportErrorType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Every error of one import written as CSV ({@code section,row,type,message}) to a file,
+ * one line at a time, so the full list never has to be held in memory.
+ *
+ * The file is created with the first error; writing after {@link #close()} appends to it.
+ */
+public class ImportErrorReport implements Closeable {
+
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+            .setHeader("section", "row", "type", "message")
+            .build();
+
+    private final String id;
+    private final Path file;
+    private CSVPrinter printer;
+
+    public ImportErrorReport(String id, Path file) {
+        this.id = id;
+        this.file = file;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /** @param row record number within the section, {@code null} for errors not tied to a row */
+    public synchronized void write(String section, Long row, ImportErrorType type, String message) {
+        try {
+            if (printer == null) {
+                boolean exists = Files.exists(file);
+                printer = new CSVPrinter(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+                        exists ? CSVFormat.DEFAULT : FORMAT);
+            }
+            printer.printRecord(section, row, type, message);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write import error report " + file, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (printer == null) return;
+        try {
+            printer.close();
+        } catch (IOException e) {
+            System.out.println("Could not close import error report " + file + ": " + e.getMessage());
+        }
+        printer = null;
+    }
+}
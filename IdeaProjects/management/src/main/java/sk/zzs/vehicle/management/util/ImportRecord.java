@@ -0,0 +1,18 @@
+package sk.zzs.vehicle.management.util;
+
+/** One data row of an import section, whatever file format it came from */
+public interface ImportRecord {
+
+    /**
+     * Where the user finds the row, for error reports and checkpoints: the record number within
+     * the CSV section (the first row after the header is record 1), or the row number of the
+     * workbook sheet. Increases from row to row.
+     */
+    long getRecordNumber();
+
+    /**
+     * Value of the column with this header name; {@code ""} for an empty cell,
+     * {@code null} when the section has no such column
+     */
+    String get(String column);
+}
@@ -0,0 +1,31 @@
+package sk.zzs.vehicle.management.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Reads an import file section by section: {@link CsvSectionReader} for (compressed) CSV
+ * with [Section] markers, {@link XlsxSectionReader} for workbooks with one sheet per section.
+ */
+public interface SectionReader extends Closeable {
+
+    /**
+     * Advance to the next section, skipping whatever is left of the current one.
+     *
+     * @return section name without brackets, or {@code null} at the end of input
+     */
+    String nextSection() throws IOException;
+
+    /**
+     * Data rows of the current section, read lazily as the stream is consumed. Must be
+     * consumed (or abandoned) before {@link #nextSection()} is called again.
+     */
+    Stream<ImportRecord> records() throws IOException;
+
+    /** Workbooks are told by their name, a .xlsx is a zip and would pass for a zip of CSV files */
+    static boolean isXlsx(String filename) {
+        return filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+}
@@ -0,0 +1,89 @@
+package sk.zzs.vehicle.management.util;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Binary registry snapshot, version 2:
+ *
+ * <pre>
+ * "ZZSS" magic, short format version, long created-at (epoch millis), int CRC32 of the header
+ * per table:
+ *   TABLE, UTF name, short column count, per column: UTF name, byte type code, int CRC32 of the table header
+ *   per block of rows:
+ *     BLOCK, int rows, int raw length, int deflated length, deflated bytes (zlib), int CRC32 of the block from rows on
+ *   TABLE_END, long rows in the table
+ * END
+ * </pre>
+ *
+ * A row inside a block is its values in column order, each one a presence byte (0 = NULL)
+ * followed by the value in {@link java.io.DataOutput} encoding of its type. Blocks are
+ * compressed and checked separately, so a damaged file is reported at the block it breaks in;
+ * the headers have checksums of their own. The row count at the end of a table and the END
+ * marker, which must be the last byte, catch a cut-off or run-on file.
+ */
+public final class SnapshotFormat {
+
+    public static final byte[] MAGIC = {'Z', 'Z', 'S', 'S'};
+    public static final short VERSION = 2;
+
+    public static final byte END = 0;
+    public static final byte TABLE = 1;
+    public static final byte BLOCK = 2;
+    public static final byte TABLE_END = 3;
+
+    private SnapshotFormat() {
+    }
+
+    /** Column value types; the code is what the file stores, never reuse one */
+    public enum ColumnType {
+        LONG(1, Types.BIGINT),
+        INT(2, Types.INTEGER),
+        BOOLEAN(3, Types.BOOLEAN),
+        STRING(4, Types.VARCHAR),
+        DATE(5, Types.DATE),
+        TIMESTAMP(6, Types.TIMESTAMP),
+        DECIMAL(7, Types.DECIMAL),
+        DOUBLE(8, Types.DOUBLE);
+
+        public final byte code;
+        public final int sqlType;
+
+        ColumnType(int code, int sqlType) {
+            this.code = (byte) code;
+            this.sqlType = sqlType;
+        }
+
+        public static ColumnType ofCode(byte code) {
+            for (ColumnType t : values()) {
+                if (t.code == code) return t;
+            }
+            throw new IllegalArgumentException("Unknown snapshot column type " + code);
+        }
+
+        /** Snapshot type of a JDBC column type, as reported by the driver's result set metadata */
+        public static ColumnType ofSqlType(int sqlType, String typeName, String column) {
+            // enum columns: MariaDB reports them as CHAR, other databases as OTHER
+            if (typeName != null && typeName.toUpperCase(Locale.ROOT).startsWith("ENUM")) return STRING;
+            return switch (sqlType) {
+                case Types.BIGINT -> LONG;
+                case Types.INTEGER, Types.SMALLINT, Types.TINYINT -> INT;
+                case Types.BIT, Types.BOOLEAN -> BOOLEAN;
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR,
+                     Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB -> STRING;
+                case Types.DATE -> DATE;
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP;
+                case Types.DECIMAL, Types.NUMERIC -> DECIMAL;
+                case Types.DOUBLE, Types.FLOAT, Types.REAL -> DOUBLE;
+                default -> throw new IllegalArgumentException("Column " + column + " has a type snapshots do not support: " + sqlType);
+            };
+        }
+    }
+
+    public record Column(String name, ColumnType type) {
+    }
+
+    public record Table(String name, List<Column> columns) {
+    }
+}
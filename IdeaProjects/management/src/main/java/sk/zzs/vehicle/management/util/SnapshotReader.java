@@ -0,0 +1,208 @@
+package sk.zzs.vehicle.management.util;
+
+import sk.zzs.vehicle.management.util.SnapshotFormat.Column;
+import sk.zzs.vehicle.management.util.SnapshotFormat.ColumnType;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Table;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a {@link SnapshotFormat} file table by table and block by block; every block is
+ * checked against its CRC before any of its rows is returned.
+ */
+public class SnapshotReader {
+
+    /** Writers close a block at 1 MB of rows, one last row can push it past that, never this far */
+    private static final int MAX_BLOCK_BYTES = 64 * 1024 * 1024;
+
+    private final DataInputStream in;
+    private final long createdAt;
+    private final Inflater inflater = new Inflater();
+
+    private Table table;
+    private long tableRows;
+    private int blockNo;
+
+    /** Reads and checks the file header */
+    public SnapshotReader(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in, 64 * 1024));
+        CheckedInputStream checked = new CheckedInputStream(this.in, new CRC32());
+        DataInputStream header = new DataInputStream(checked);
+        try {
+            byte[] magic = header.readNBytes(SnapshotFormat.MAGIC.length);
+            if (!Arrays.equals(magic, SnapshotFormat.MAGIC)) {
+                throw new IOException("Not a registry snapshot");
+            }
+            short version = header.readShort();
+            if (version != SnapshotFormat.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ", expected " + SnapshotFormat.VERSION);
+            }
+            this.createdAt = header.readLong();
+            checkHeader(checked, "the file header");
+        } catch (EOFException e) {
+            throw new IOException("Not a registry snapshot", e);
+        }
+    }
+
+    /** When the snapshot was taken, epoch millis */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /** @return the next table, {@code null} at the end of the snapshot */
+    public Table nextTable() throws IOException {
+        try {
+            return readTable();
+        } catch (EOFException e) {
+            throw cutOff(e);
+        }
+    }
+
+    /** @return rows of the next block of the current table, {@code null} after its last block */
+    public List<Object[]> nextBlock() throws IOException {
+        try {
+            return readBlock();
+        } catch (EOFException e) {
+            throw cutOff(e);
+        }
+    }
+
+    private Table readTable() throws IOException {
+        byte marker = in.readByte();
+        if (marker == SnapshotFormat.END) {
+            inflater.end();
+            if (in.read() != -1) {
+                throw new IOException("Broken snapshot: data after the end");
+            }
+            return null;
+        }
+        if (marker != SnapshotFormat.TABLE) {
+            throw new IOException("Broken snapshot: expected a table, found marker " + marker);
+        }
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        DataInputStream header = new DataInputStream(checked);
+        String name = header.readUTF();
+        int count = header.readShort();
+        List<Column> columns = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            String column = header.readUTF();
+            try {
+                columns.add(new Column(column, ColumnType.ofCode(header.readByte())));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Broken snapshot: " + e.getMessage(), e);
+            }
+        }
+        checkHeader(checked, "the header of table " + name);
+        table = new Table(name, columns);
+        tableRows = 0;
+        blockNo = 0;
+        return table;
+    }
+
+    private List<Object[]> readBlock() throws IOException {
+        byte marker = in.readByte();
+        if (marker == SnapshotFormat.TABLE_END) {
+            long expected = in.readLong();
+            if (expected != tableRows) {
+                throw new IOException("Broken snapshot: table " + table.name() + " should have "
+                        + expected + " rows, found " + tableRows);
+            }
+            return null;
+        }
+        if (marker != SnapshotFormat.BLOCK) {
+            throw new IOException("Broken snapshot: expected a block of " + table.name() + ", found marker " + marker);
+        }
+        blockNo++;
+        CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+        DataInputStream stored = new DataInputStream(checked);
+        int rows = stored.readInt();
+        int rawLength = stored.readInt();
+        int deflatedLength = stored.readInt();
+        // a damaged header must not make us allocate gigabytes
+        if (rows < 0 || rows > rawLength || rawLength > MAX_BLOCK_BYTES
+                || deflatedLength < 0 || deflatedLength > MAX_BLOCK_BYTES) {
+            throw new IOException(brokenBlock("impossible block size"));
+        }
+        byte[] raw = new byte[rawLength];
+        byte[] deflated = new byte[deflatedLength];
+        stored.readFully(deflated);
+        if ((int) checked.getChecksum().getValue() != in.readInt()) {
+            throw new IOException(brokenBlock("checksum mismatch"));
+        }
+
+        // the zlib stream checks the inflated bytes against its own Adler-32
+        inflater.reset();
+        inflater.setInput(deflated);
+        try {
+            if (inflater.inflate(raw) != raw.length || !inflater.finished()) {
+                throw new IOException(brokenBlock("wrong length"));
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(brokenBlock(e.getMessage()), e);
+        }
+        DataInputStream block = new DataInputStream(new ByteArrayInputStream(raw));
+        List<Object[]> result = new ArrayList<>(rows);
+        for (int r = 0; r < rows; r++) {
+            Object[] values = new Object[table.columns().size()];
+            for (int c = 0; c < values.length; c++) {
+                values[c] = readValue(block, table.columns().get(c).type());
+            }
+            result.add(values);
+        }
+        if (block.available() > 0) {
+            throw new IOException(brokenBlock("bytes left after the last row"));
+        }
+        tableRows += rows;
+        return result;
+    }
+
+    /** Compares the CRC32 that follows a header with the one of the header bytes just read */
+    private void checkHeader(CheckedInputStream header, String what) throws IOException {
+        if ((int) header.getChecksum().getValue() != in.readInt()) {
+            throw new IOException("Broken snapshot: " + what + " is damaged");
+        }
+    }
+
+    private IOException cutOff(EOFException e) {
+        return new IOException("Snapshot is cut off" + (table != null ? " in table " + table.name() : ""), e);
+    }
+
+    private String brokenBlock(String reason) {
+        return "Block " + blockNo + " of table " + table.name() + " is damaged: " + reason;
+    }
+
+    private static Object readValue(DataInputStream in, ColumnType type) throws IOException {
+        if (in.readByte() == 0) return null;
+        return switch (type) {
+            case LONG -> in.readLong();
+            case INT -> in.readInt();
+            case BOOLEAN -> in.readBoolean();
+            case STRING -> {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                yield new String(bytes, StandardCharsets.UTF_8);
+            }
+            case DATE -> LocalDate.ofEpochDay(in.readLong());
+            case TIMESTAMP -> LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            case DECIMAL -> new BigDecimal(in.readUTF());
+            case DOUBLE -> in.readDouble();
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package sk.zzs.vehicle.management.util;
+
+import sk.zzs.vehicle.management.util.SnapshotFormat.Column;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Table;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a {@link SnapshotFormat} file: rows are collected into a block until it is large
+ * enough, then the block is compressed, checksummed and written out, so only one block is
+ * ever held in memory.
+ */
+public class SnapshotWriter {
+
+    private static final int BLOCK_ROWS = 10_000;
+    private static final int BLOCK_BYTES = 1024 * 1024;
+
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream blockBytes = new ByteArrayOutputStream(BLOCK_BYTES + 64 * 1024);
+    private final DataOutputStream block = new DataOutputStream(blockBytes);
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private byte[] deflated = new byte[BLOCK_BYTES];
+
+    private Table table;
+    private int blockRows;
+    private long tableRows;
+
+    /** Writes the file header; {@code out} is flushed by {@link #finish()} but never closed */
+    public SnapshotWriter(OutputStream out, long createdAt) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        CheckedOutputStream checked = new CheckedOutputStream(this.out, new CRC32());
+        DataOutputStream header = new DataOutputStream(checked);
+        header.write(SnapshotFormat.MAGIC);
+        header.writeShort(SnapshotFormat.VERSION);
+        header.writeLong(createdAt);
+        this.out.writeInt((int) checked.getChecksum().getValue());
+    }
+
+    public void beginTable(Table table) throws IOException {
+        this.table = table;
+        this.tableRows = 0;
+        out.writeByte(SnapshotFormat.TABLE);
+        CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+        DataOutputStream header = new DataOutputStream(checked);
+        header.writeUTF(table.name());
+        header.writeShort(table.columns().size());
+        for (Column c : table.columns()) {
+            header.writeUTF(c.name());
+            header.writeByte(c.type().code);
+        }
+        out.writeInt((int) checked.getChecksum().getValue());
+    }
+
+    /** @param values one value per column of the current table, in column order */
+    public void writeRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            writeValue(table.columns().get(i), values[i]);
+        }
+        blockRows++;
+        tableRows++;
+        if (blockRows >= BLOCK_ROWS || blockBytes.size() >= BLOCK_BYTES) {
+            flushBlock();
+        }
+    }
+
+    public void endTable() throws IOException {
+        flushBlock();
+        out.writeByte(SnapshotFormat.TABLE_END);
+        out.writeLong(tableRows);
+        table = null;
+    }
+
+    public void finish() throws IOException {
+        out.writeByte(SnapshotFormat.END);
+        out.flush();
+        deflater.end();
+    }
+
+    private void writeValue(Column column, Object value) throws IOException {
+        if (value == null) {
+            block.writeByte(0);
+            return;
+        }
+        block.writeByte(1);
+        switch (column.type()) {
+            case LONG -> block.writeLong(((Number) value).longValue());
+            case INT -> block.writeInt(((Number) value).intValue());
+            case BOOLEAN -> block.writeBoolean((Boolean) value);
+            case STRING -> {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                block.writeInt(bytes.length);
+                block.write(bytes);
+            }
+            case DATE -> block.writeLong(((LocalDate) value).toEpochDay());
+            case TIMESTAMP -> {
+                LocalDateTime t = (LocalDateTime) value;
+                block.writeLong(t.toEpochSecond(ZoneOffset.UTC));
+                block.writeInt(t.getNano());
+            }
+            case DECIMAL -> block.writeUTF(((BigDecimal) value).toPlainString());
+            case DOUBLE -> block.writeDouble(((Number) value).doubleValue());
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRows == 0) return;
+        byte[] raw = blockBytes.toByteArray();
+
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == deflated.length) {
+                deflated = Arrays.copyOf(deflated, deflated.length * 2);
+            }
+            length += deflater.deflate(deflated, length, deflated.length - length);
+        }
+
+        out.writeByte(SnapshotFormat.BLOCK);
+        CheckedOutputStream checked = new CheckedOutputStream(out, new CRC32());
+        DataOutputStream stored = new DataOutputStream(checked);
+        stored.writeInt(blockRows);
+        stored.writeInt(raw.length);
+        stored.writeInt(length);
+        stored.write(deflated, 0, length);
+        out.writeInt((int) checked.getChecksum().getValue());
+
+        blockBytes.reset();
+        blockRows = 0;
+    }
+}
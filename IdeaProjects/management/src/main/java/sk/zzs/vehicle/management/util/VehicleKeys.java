@@ -0,0 +1,23 @@
+package sk.zzs.vehicle.management.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class VehicleKeys {
+
+    private static final Pattern NOT_KEY = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Lookup key of a license plate or VIN: upper case, without diacritics and without anything
+     * that is not a letter or digit, so "BA-123 AB", "ba123ab" and "BA 123 AB" share the key
+     * "BA123AB". Empty for {@code null}.
+     */
+    public static String normalize(String plateOrVin) {
+        if (plateOrVin == null) return "";
+        String folded = MARKS.matcher(Normalizer.normalize(plateOrVin, Normalizer.Form.NFD)).replaceAll("");
+        return NOT_KEY.matcher(folded).replaceAll("").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,20 @@
+package sk.zzs.vehicle.management.util;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import sk.zzs.vehicle.management.service.VehicleSearchIndex;
+
+@Component
+public class VehicleSearchIndexHolder {
+
+    private static VehicleSearchIndex index;
+
+    @Autowired
+    public VehicleSearchIndexHolder(VehicleSearchIndex searchIndex) {
+        index = searchIndex;
+    }
+
+    public static VehicleSearchIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,292 @@
+package sk.zzs.vehicle.management.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads an .xlsx workbook with one sheet per section: sheets named Providers, Vehicles and
+ * NetworkPoints (case does not matter), the first non-empty row of a sheet is the
+ * header, empty rows are skipped. A record is numbered by its sheet row, as Excel shows it.
+ *
+ * Sheets are read as a stream of XML events, row by row, so a sheet is never loaded whole;
+ * only the workbook's shared strings table is kept in memory. Cells come out as the text
+ * the CSV import expects: dates as yyyy-MM-dd, whole numbers without a decimal point.
+ */
+public class XlsxSectionReader implements SectionReader {
+
+    private static final String[] SECTIONS = {"Providers", "Vehicles", "NetworkPoints"};
+
+    private static final XMLInputFactory XML = XMLHelper.newXMLInputFactory();
+
+    private final OPCPackage workbook;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    private final StylesTable styles;
+    private final XSSFReader.SheetIterator sheets;
+
+    private InputStream currentSheet;
+
+    public XlsxSectionReader(Path file) throws IOException {
+        try {
+            this.workbook = OPCPackage.open(file.toFile(), PackageAccess.READ);
+        } catch (OpenXML4JException e) {
+            throw new IOException("Not an .xlsx workbook: " + e.getMessage(), e);
+        }
+        try {
+            XSSFReader reader = new XSSFReader(workbook);
+            this.sharedStrings = new ReadOnlySharedStringsTable(workbook, false);
+            this.styles = reader.getStylesTable();
+            this.sheets = reader.getSheetIterator();
+        } catch (OpenXML4JException | SAXException | IOException e) {
+            workbook.revert();
+            throw new IOException("Broken .xlsx workbook: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String nextSection() throws IOException {
+        closeCurrentSheet();
+        if (!sheets.hasNext()) {
+            return null;
+        }
+        currentSheet = sheets.next();
+        String name = sheets.getSheetName().trim();
+        for (String section : SECTIONS) {
+            if (section.equalsIgnoreCase(name)) return section;
+        }
+        return name;
+    }
+
+    @Override
+    public Stream<ImportRecord> records() throws IOException {
+        if (currentSheet == null) {
+            return Stream.empty();
+        }
+        try {
+            SheetRows rows = new SheetRows(XML.createXMLStreamReader(currentSheet));
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED), false);
+        } catch (XMLStreamException e) {
+            throw new IOException("Broken sheet: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeCurrentSheet();
+        // opened read-only: revert closes without trying to save
+        workbook.revert();
+    }
+
+    private void closeCurrentSheet() throws IOException {
+        if (currentSheet != null) {
+            currentSheet.close();
+            currentSheet = null;
+        }
+    }
+
+    /** Data rows of one sheet, pulled from the sheet's XML one row ahead of the consumer */
+    private class SheetRows implements Iterator<ImportRecord> {
+
+        private final XMLStreamReader xml;
+        private Map<String, Integer> columns;
+        /** Sheet row number (1-based) of the row last read */
+        private long rowNumber;
+        private ImportRecord next;
+        private boolean done;
+
+        SheetRows(XMLStreamReader xml) {
+            this.xml = xml;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !done) {
+                try {
+                    next = readRecord();
+                } catch (XMLStreamException e) {
+                    throw new UncheckedIOException(new IOException("Broken sheet: " + e.getMessage(), e));
+                }
+                done = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public ImportRecord next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            ImportRecord r = next;
+            next = null;
+            return r;
+        }
+
+        private ImportRecord readRecord() throws XMLStreamException {
+            List<String> cells;
+            while ((cells = readRow()) != null) {
+                if (cells.stream().allMatch(String::isBlank)) continue;
+                if (columns == null) {
+                    columns = header(cells);
+                    continue;
+                }
+                return new XlsxRecord(rowNumber, cells, columns);
+            }
+            return null;
+        }
+
+        /**
+         * Cells of the next row by column position (gaps filled with ""), or {@code null} after the
+         * last row. Sets {@link #rowNumber} from the row's {@code r} attribute; writers may leave
+         * it out, then the row follows the previous one.
+         */
+        private List<String> readRow() throws XMLStreamException {
+            while (xml.hasNext()) {
+                if (xml.next() == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) {
+                    String r = xml.getAttributeValue(null, "r");
+                    rowNumber = r != null ? Long.parseLong(r.trim()) : rowNumber + 1;
+                    List<String> cells = new ArrayList<>();
+                    while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                        if (!"c".equals(xml.getLocalName())) {
+                            skipElement();
+                            continue;
+                        }
+                        String ref = xml.getAttributeValue(null, "r");
+                        int column = ref != null ? columnIndex(ref) : cells.size();
+                        while (cells.size() < column) cells.add("");
+                        String value = readCell();
+                        if (column < cells.size()) {
+                            cells.set(column, value);
+                        } else {
+                            cells.add(value);
+                        }
+                    }
+                    return cells;
+                }
+            }
+            return null;
+        }
+
+        /** Text of the {@code <c>} element the reader is on; leaves the reader on its end tag */
+        private String readCell() throws XMLStreamException {
+            String type = xml.getAttributeValue(null, "t");
+            String style = xml.getAttributeValue(null, "s");
+            String raw = null;
+            StringBuilder inline = null;
+            while (xml.nextTag() == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "v" -> raw = xml.getElementText();
+                    case "is" -> {
+                        // inline rich text: the runs' <t> elements joined
+                        inline = new StringBuilder();
+                        int depth = 1;
+                        while (depth > 0) {
+                            int event = xml.next();
+                            if (event == XMLStreamConstants.START_ELEMENT) {
+                                if ("t".equals(xml.getLocalName())) {
+                                    inline.append(xml.getElementText());
+                                } else {
+                                    depth++;
+                                }
+                            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                                depth--;
+                            }
+                        }
+                    }
+                    default -> skipElement();
+                }
+            }
+            if (inline != null) return inline.toString();
+            if (raw == null) return "";
+            if (type == null || type.equals("n")) return number(raw, style);
+            return switch (type) {
+                case "s" -> sharedStrings.getItemAt(Integer.parseInt(raw.trim())).getString();
+                case "b" -> "1".equals(raw.trim()) ? "TRUE" : "FALSE";
+                case "d" -> raw.length() >= 10 ? raw.substring(0, 10) : raw; // ISO 8601 date cell
+                default -> raw; // str (formula result), e (error)
+            };
+        }
+
+        private void skipElement() throws XMLStreamException {
+            int depth = 1;
+            while (depth > 0) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) depth++;
+                else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+            }
+        }
+    }
+
+    /** Date-formatted numbers become yyyy-MM-dd, other numbers plain digits (1234, not 1234.0 or 1.234E3) */
+    private String number(String raw, String style) {
+        if (style != null && !raw.isBlank()) {
+            XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+            if (cellStyle != null && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString())) {
+                return DateUtil.getLocalDateTime(Double.parseDouble(raw)).toLocalDate().toString();
+            }
+        }
+        try {
+            return new BigDecimal(raw.trim()).stripTrailingZeros().toPlainString();
+        } catch (NumberFormatException e) {
+            return raw;
+        }
+    }
+
+    /** Header names by column, trailing empty header cells dropped like trailing commas in CSV */
+    private static Map<String, Integer> header(List<String> cells) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < cells.size(); i++) {
+            String name = cells.get(i).trim();
+            if (!name.isEmpty()) columns.putIfAbsent(name, i);
+        }
+        return columns;
+    }
+
+    /** Zero-based column of a cell reference: A1 -> 0, AB12 -> 27 */
+    private static int columnIndex(String ref) {
+        int column = 0;
+        for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+            column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private record XlsxRecord(long recordNumber, List<String> cells, Map<String, Integer> columns) implements ImportRecord {
+
+        @Override
+        public long getRecordNumber() {
+            return recordNumber;
+        }
+
+        @Override
+        public String get(String column) {
+            Integer i = columns.get(column);
+            if (i == null) return null;
+            return i < cells.size() ? cells.get(i) : "";
+        }
+    }
+}
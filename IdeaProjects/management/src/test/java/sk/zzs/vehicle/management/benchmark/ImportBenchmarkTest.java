@@ -0,0 +1,156 @@
+package sk.zzs.vehicle.management.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.enumer.ImportEngine;
+import sk.zzs.vehicle.management.service.DataImportService;
+import sk.zzs.vehicle.management.service.ImportContext;
+import sk.zzs.vehicle.management.service.StagingImportService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Import throughput benchmark: imports a generated registry section by section into an
+ * in-memory H2 database in MariaDB mode and prints rows/s, peak heap and the number of
+ * SQL statements per section (H2 counts every row of a JDBC batch). Results are also appended to target/import-benchmark.csv,
+ * so runs can be compared.
+ *
+ * Not part of the normal build, run it with {@code mvn test -Pbenchmark}. Sizes can be set
+ * with -Dbenchmark.providers, -Dbenchmark.vehicles, -Dbenchmark.networkPoints and -Dbenchmark.badRowShare.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=TIMESTAMP,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+class ImportBenchmarkTest {
+
+    private static final List<String> SECTIONS = List.of(
+            RegistryCsvGenerator.PROVIDERS, RegistryCsvGenerator.VEHICLES, RegistryCsvGenerator.NETWORK_POINTS);
+
+    @Autowired
+    private DataImportService dataImportService;
+
+    @Autowired
+    private StagingImportService stagingImportService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void batchEngine() throws IOException {
+        run('B', ImportEngine.BATCH);
+    }
+
+    @Test
+    void stagingEngine() throws IOException {
+        run('S', ImportEngine.STAGING);
+    }
+
+    /** Each engine imports its own registry (own key prefix), so both can run against the same DB */
+    private void run(char prefix, ImportEngine engine) throws IOException {
+        RegistryCsvGenerator generator = new RegistryCsvGenerator(prefix,
+                Integer.getInteger("benchmark.providers", 200),
+                Integer.getInteger("benchmark.vehicles", 20_000),
+                Integer.getInteger("benchmark.networkPoints", 5_000),
+                Double.parseDouble(System.getProperty("benchmark.badRowShare", "0.01")),
+                42);
+
+        System.out.printf("%n%-8s %-14s %8s %8s %10s %10s %9s%n",
+                "engine", "section", "rows", "ms", "rows/s", "heap MB", "queries");
+        for (String section : SECTIONS) {
+            Path file = tmp.resolve(prefix + "-" + section + ".csv");
+            generator.write(file, section);
+
+            resetQueryStatistics();
+            System.gc();
+            List<MemoryPoolMXBean> heap = heapPools();
+            heap.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+            ImportContext ctx = new ImportContext();
+            long start = System.nanoTime();
+            try (InputStream in = Files.newInputStream(file)) {
+                if (engine == ImportEngine.STAGING) {
+                    stagingImportService.importAll(in, ctx);
+                } else {
+                    dataImportService.importAll(in, ctx);
+                }
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+            long peakHeap = heap.stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+            long queries = queryCount();
+            int rows = generator.rows(section);
+            long rowsPerSecond = rows * 1000L / millis;
+            System.out.printf("%-8s %-14s %8d %8d %10d %10d %9d%n",
+                    engine, section, rows, millis, rowsPerSecond, peakHeap / (1024 * 1024), queries);
+            appendResult(engine, section, rows, millis, rowsPerSecond, peakHeap, queries);
+
+            assertEquals(generator.validRows(section), imported(ctx.getSummary(), section),
+                    engine + " " + section + ": " + ctx.getSummary().getErrors().stream().limit(5).toList());
+        }
+    }
+
+    private static int imported(ImportResultSummary summary, String section) {
+        return switch (section) {
+            case RegistryCsvGenerator.PROVIDERS -> summary.getProviders().getImported();
+            case RegistryCsvGenerator.VEHICLES -> summary.getVehicles().getImported();
+            default -> summary.getNetworkPoints().getImported();
+        };
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP && p.isValid())
+                .toList();
+    }
+
+    /** H2 keeps per-statement execution counts while QUERY_STATISTICS is on; switching it off drops them */
+    private void resetQueryStatistics() {
+        jdbc.execute("SET QUERY_STATISTICS FALSE");
+        jdbc.execute("SET QUERY_STATISTICS_MAX_ENTRIES 10000");
+        jdbc.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    private long queryCount() {
+        Long count = jdbc.queryForObject(
+                "SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM INFORMATION_SCHEMA.QUERY_STATISTICS", Long.class);
+        return count != null ? count - 1 : 0; // minus this query
+    }
+
+    private static void appendResult(ImportEngine engine, String section, int rows, long millis, long rowsPerSecond,
+                                     long peakHeap, long queries) throws IOException {
+        Path results = Path.of("target", "import-benchmark.csv");
+        Files.createDirectories(results.getParent());
+        if (!Files.exists(results)) {
+            Files.writeString(results, "timestamp,engine,section,rows,ms,rows_per_s,peak_heap_bytes,queries\n");
+        }
+        Files.writeString(results, LocalDateTime.now() + "," + engine + "," + section + "," + rows + ","
+                + millis + "," + rowsPerSecond + "," + peakHeap + "," + queries + "\n", StandardOpenOption.APPEND);
+    }
+}
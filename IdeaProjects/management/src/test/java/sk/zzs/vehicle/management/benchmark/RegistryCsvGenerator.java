@@ -0,0 +1,201 @@
+package sk.zzs.vehicle.management.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Random;
+
+/**
+ * Writes synthetic registries in the sectioned CSV format read by DataImportService:
+ * providers, vehicles with unique VINs and license plates spread over the providers, and
+ * network points, optionally with a share of rows the import has to reject.
+ *
+ * Output is fully determined by the constructor arguments (seeded), so benchmark runs
+ * compare like with like. The one-letter {@code prefix} keeps the keys of generators with
+ * different prefixes apart, so several registries can be imported into the same DB.
+ * Up to 260 000 vehicles per prefix.
+ *
+ * Standalone use: {@code RegistryCsvGenerator <out.csv> <providers> <vehicles> <networkPoints> [badRowShare]}
+ */
+public class RegistryCsvGenerator {
+
+    public static final String PROVIDERS = "Providers";
+    public static final String VEHICLES = "Vehicles";
+    public static final String NETWORK_POINTS = "NetworkPoints";
+
+    private static final String[] DISTRICTS = {"BA", "BB", "KE", "NR", "PO", "TT", "TN", "ZA", "LM", "MT"};
+    private static final String[] BRANDS = {"Mercedes-Benz", "Volkswagen", "Ford", "Renault", "Fiat", "Peugeot"};
+    private static final String[] MODELS = {"Sprinter", "Crafter", "Transit", "Master", "Ducato", "Boxer"};
+    private static final String[] TYPES = {"RLP", "RV", "RZP", "OTHER"};
+    private static final String VIN_ALPHABET = "0123456789ABCDEFGHJKLMNPRSTUVWXYZ";
+    private static final LocalDate BASE_DATE = LocalDate.of(2015, 1, 1);
+
+    private final char prefix;
+    private final int providers;
+    private final int vehicles;
+    private final int networkPoints;
+    private final double badRowShare;
+    private final long seed;
+
+    public RegistryCsvGenerator(char prefix, int providers, int vehicles, int networkPoints, double badRowShare, long seed) {
+        if (prefix < 'A' || prefix > 'Z') throw new IllegalArgumentException("prefix must be an upper case letter");
+        if (providers < 1) throw new IllegalArgumentException("at least one provider is needed");
+        if (vehicles > 260_000) throw new IllegalArgumentException("at most 260000 vehicles per prefix");
+        this.prefix = prefix;
+        this.providers = providers;
+        this.vehicles = vehicles;
+        this.networkPoints = networkPoints;
+        this.badRowShare = badRowShare;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.out.println("usage: RegistryCsvGenerator <out.csv> <providers> <vehicles> <networkPoints> [badRowShare]");
+            return;
+        }
+        RegistryCsvGenerator gen = new RegistryCsvGenerator('A', Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Integer.parseInt(args[3]), args.length > 4 ? Double.parseDouble(args[4]) : 0, 42);
+        gen.write(Path.of(args[0]), PROVIDERS, VEHICLES, NETWORK_POINTS);
+    }
+
+    /** Write the given sections, in the given order, to {@code file} (UTF-8) */
+    public void write(Path file, String... sections) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String section : sections) {
+                writeSection(section, out);
+            }
+        }
+    }
+
+    public void writeSection(String section, Writer out) throws IOException {
+        switch (section) {
+            case PROVIDERS -> writeProviders(out);
+            case VEHICLES -> writeVehicles(out);
+            case NETWORK_POINTS -> writeNetworkPoints(out);
+            default -> throw new IllegalArgumentException("Unknown section: " + section);
+        }
+    }
+
+    /** Rows of a section the import should accept */
+    public int validRows(String section) {
+        return switch (section) {
+            case PROVIDERS -> providers;
+            case VEHICLES -> vehicles - badRows(vehicles);
+            case NETWORK_POINTS -> networkPoints - badRows(networkPoints);
+            default -> throw new IllegalArgumentException("Unknown section: " + section);
+        };
+    }
+
+    /** Rows a section has in total, bad ones included */
+    public int rows(String section) {
+        return switch (section) {
+            case PROVIDERS -> providers;
+            case VEHICLES -> vehicles;
+            case NETWORK_POINTS -> networkPoints;
+            default -> throw new IllegalArgumentException("Unknown section: " + section);
+        };
+    }
+
+    public String providerId(int i) {
+        return prefix + "-P" + String.format("%05d", i);
+    }
+
+    private void writeProviders(Writer out) throws IOException {
+        out.write("[Providers]\n");
+        out.write("providerId,name,email,address\n");
+        for (int i = 0; i < providers; i++) {
+            out.write(providerId(i) + ",Záchranná služba " + prefix + " " + i + ",dispecing" + i + "@" + Character.toLowerCase(prefix)
+                    + ".zzs.sk,\"Hlavná " + (i + 1) + ", " + DISTRICTS[i % DISTRICTS.length] + "\"\n");
+        }
+    }
+
+    /** Providers are generated valid; bad rows go to the vehicle and network point sections */
+    private void writeVehicles(Writer out) throws IOException {
+        Random rnd = new Random(seed);
+        out.write("[Vehicles]\n");
+        out.write("vin_num,brand,model,license_plate,first_registration_date,technical_check_valid_until,provider_id,provider_assignment_end_date\n");
+        int bad = badRows(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            int b = rnd.nextInt(BRANDS.length);
+            String vin = vin(i);
+            String plate = plate(i);
+            String provider = providerId(rnd.nextInt(providers));
+            String endDate = date(BASE_DATE.plusYears(12).plusDays(rnd.nextInt(1000)));
+            if (isBad(i, bad)) {
+                switch (badIndex(i) % 3) {
+                    case 0 -> endDate = "";                   // required column missing
+                    case 1 -> provider = prefix + "-UNKNOWN";  // provider not found
+                    default -> vin = vin(i - 1);               // VIN of the previous row
+                }
+            }
+            out.write(vin + "," + BRANDS[b] + "," + MODELS[b] + "," + plate + ","
+                    + date(BASE_DATE.plusDays(rnd.nextInt(3000))) + ","
+                    + date(BASE_DATE.plusYears(10).plusDays(rnd.nextInt(1000))) + ","
+                    + provider + "," + endDate + "\n");
+        }
+    }
+
+    private void writeNetworkPoints(Writer out) throws IOException {
+        Random rnd = new Random(seed + 1);
+        out.write("[NetworkPoints]\n");
+        out.write("code,name,type,valid_to,provider_id,provider_end_date\n");
+        int bad = badRows(networkPoints);
+        for (int i = 0; i < networkPoints; i++) {
+            String type = TYPES[rnd.nextInt(TYPES.length)];
+            String validTo = date(BASE_DATE.plusYears(12).plusDays(rnd.nextInt(1000)));
+            if (isBad(i, bad)) {
+                if (badIndex(i) % 2 == 0) type = "HELI"; // not a NetworkPointType
+                else validTo = "";
+            }
+            out.write(prefix + "-NP" + String.format("%06d", i) + ",Stanica " + DISTRICTS[i % DISTRICTS.length] + " " + i + ","
+                    + type + "," + validTo + "," + providerId(rnd.nextInt(providers)) + ","
+                    + date(BASE_DATE.plusYears(11).plusDays(rnd.nextInt(1000))) + "\n");
+        }
+    }
+
+    private int badRows(int rows) {
+        if (badRowShare <= 0) return 0;
+        return Math.min((int) Math.round(rows * badRowShare), rows / badEvery());
+    }
+
+    /** Bad rows are spread evenly over the section: every n-th row, never the first one */
+    private boolean isBad(int i, int bad) {
+        if (bad == 0) return false;
+        int every = badEvery();
+        return i % every == every - 1 && badIndex(i) < bad;
+    }
+
+    private int badIndex(int i) {
+        return i / badEvery();
+    }
+
+    private int badEvery() {
+        return Math.max(2, (int) Math.round(1 / badRowShare));
+    }
+
+    /** 17 characters, unique per prefix and index */
+    private String vin(int i) {
+        StringBuilder sb = new StringBuilder("WDB").append(prefix);
+        StringBuilder serial = new StringBuilder();
+        long n = i;
+        for (int k = 0; k < 13; k++) {
+            serial.append(VIN_ALPHABET.charAt((int) (n % VIN_ALPHABET.length())));
+            n /= VIN_ALPHABET.length();
+        }
+        return sb.append(serial.reverse()).toString();
+    }
+
+    /** Slovak style plate (district, three digits, two letters), unique per prefix for i < 260 000 */
+    private String plate(int i) {
+        return DISTRICTS[i % 10] + String.format("%03d", (i / 10) % 1000) + prefix + (char) ('A' + (i / 10_000) % 26);
+    }
+
+    private static String date(LocalDate d) {
+        return d.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package sk.zzs.vehicle.management.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cursors read back as written for every sortable attribute, and a cursor a client made up or
+ * changed is refused with 400 instead of paging from some other position.
+ */
+class VehicleCursorTest {
+
+    @Test
+    void decodesWhatWasEncoded() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(42L);
+        vehicle.setLicensePlate("BA-123ŽŠ");
+        vehicle.setVinNum("VIN|with=separators");
+        vehicle.setTechnicalCheckValidUntil(LocalDate.of(2027, 2, 28));
+
+        for (String sort : VehicleCursor.SORTABLE.keySet()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                // providerAssignmentEndDate is null: a position among the vehicles without a value
+                VehicleCursor cursor = VehicleCursor.start(sort + "," + direction).after(vehicle);
+                assertEquals(cursor, VehicleCursor.decode(cursor.encode()), sort + " " + direction);
+            }
+        }
+        assertEquals(42L, VehicleCursor.start("id").after(vehicle).value());
+        assertEquals("BA-123ŽŠ", VehicleCursor.start("licensePlate").after(vehicle).value());
+        assertEquals(LocalDate.of(2027, 2, 28), VehicleCursor.start("technicalCheckValidUntil").after(vehicle).value());
+    }
+
+    @Test
+    void startsAscendingByIdUnlessToldOtherwise() {
+        assertEquals(new VehicleCursor("id", Sort.Direction.ASC, null, null), VehicleCursor.start(null));
+        assertEquals(new VehicleCursor("id", Sort.Direction.ASC, null, null), VehicleCursor.start(" "));
+        assertEquals(new VehicleCursor("vinNum", Sort.Direction.DESC, null, null), VehicleCursor.start(" vinNum , desc "));
+        assertTrue(VehicleCursor.start("vinNum").isStart());
+        assertBadRequest(() -> VehicleCursor.start("brand"));
+        assertBadRequest(() -> VehicleCursor.start("id,sideways"));
+    }
+
+    @Test
+    void refusesTamperedCursors() {
+        String valid = VehicleCursor.start("technicalCheckValidUntil,desc")
+                .after(vehicle(7L, LocalDate.of(2026, 1, 1))).encode();
+        assertEquals("v1|technicalCheckValidUntil|DESC|7|=2026-01-01", raw(valid));
+
+        List<String> tampered = List.of(
+                "",
+                "not a cursor!",
+                valid.substring(0, valid.length() - 3),
+                token("v2|technicalCheckValidUntil|DESC|7|=2026-01-01"), // other version
+                token("v1|brand|DESC|7|=Škoda"),                         // not sortable
+                token("v1|technicalCheckValidUntil|UP|7|=2026-01-01"),
+                token("v1|technicalCheckValidUntil|DESC|seven|=2026-01-01"),
+                token("v1|technicalCheckValidUntil|DESC|null|"),         // a start position is never handed out
+                token("v1|technicalCheckValidUntil|DESC|7|=2026-02-30"),
+                token("v1|technicalCheckValidUntil|DESC|7|x2026-01-01"),
+                token("v1|id|ASC|7|=7.5"),
+                token("v1|id|ASC|7"));
+        for (String cursor : tampered) {
+            assertBadRequest(() -> VehicleCursor.decode(cursor));
+        }
+    }
+
+    private static Vehicle vehicle(Long id, LocalDate technicalCheckValidUntil) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setTechnicalCheckValidUntil(technicalCheckValidUntil);
+        return vehicle;
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String raw(String token) {
+        return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    }
+
+    private static void assertBadRequest(Runnable call) {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, call::run);
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+}
@@ -0,0 +1,120 @@
+package sk.zzs.vehicle.management.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import sk.zzs.vehicle.management.dto.VehicleCursor;
+import sk.zzs.vehicle.management.entity.Vehicle;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Keyset paging through {@link VehicleRepositoryImpl#findAfter} lists every vehicle exactly once,
+ * in the order of the sort, for every sortable attribute in both directions: with NULL dates,
+ * with many vehicles sharing a sort value, and with a page boundary inside such a tie. Runs on
+ * the in-memory H2 database in MariaDB mode the import benchmark uses.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:test;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=TIMESTAMP,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+class VehicleRepositoryImplTest {
+
+    /** Brand of the vehicles of this test, the listings are filtered by it */
+    private static final String BRAND = "CursorTest";
+
+    private static final List<LocalDate> DATES = List.of(
+            LocalDate.of(2025, 1, 1), LocalDate.of(2026, 6, 30), LocalDate.of(2027, 12, 31));
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private List<Vehicle> vehicles;
+
+    @BeforeEach
+    void createVehicles() {
+        Random random = new Random(11);
+        List<Integer> plates = new ArrayList<>();
+        for (int i = 0; i < 120; i++) plates.add(i);
+        Collections.shuffle(plates, random); // ids do not follow the plates
+
+        List<Vehicle> created = new ArrayList<>();
+        for (int plate : plates) {
+            Vehicle v = new Vehicle();
+            v.setLicensePlate(String.format("CT%03d", plate));
+            v.setVinNum("VIN" + (char) ('A' + random.nextInt(4)));
+            v.setBrand(BRAND);
+            v.setModel("M");
+            // a third without a date, the rest on three dates
+            v.setTechnicalCheckValidUntil(random.nextInt(3) == 0 ? null : DATES.get(random.nextInt(DATES.size())));
+            v.setProviderAssignmentEndDate(random.nextInt(2) == 0 ? null : DATES.get(random.nextInt(DATES.size())));
+            created.add(v);
+        }
+        vehicles = vehicleRepository.saveAll(created);
+    }
+
+    @AfterEach
+    void deleteVehicles() {
+        vehicleRepository.deleteAll(vehicles);
+    }
+
+    @Test
+    void listsEveryVehicleOnceInEachSort() {
+        for (String sort : VehicleCursor.SORTABLE.keySet()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                List<Long> expected = vehicles.stream().sorted(order(sort, direction)).map(Vehicle::getId).toList();
+                for (int pageSize : new int[]{1, 2, 7, 50, 500}) {
+                    assertEquals(expected, scroll(sort, direction, pageSize),
+                            sort + " " + direction + ", " + pageSize + " per page");
+                }
+            }
+        }
+    }
+
+    /** Ids of all pages, following each page's cursor through its client token */
+    private List<Long> scroll(String sort, Sort.Direction direction, int pageSize) {
+        Specification<Vehicle> ours = (root, query, cb) -> cb.equal(root.get("brand"), BRAND);
+        List<Long> ids = new ArrayList<>();
+        VehicleCursor cursor = VehicleCursor.start(sort + "," + direction);
+        while (true) {
+            List<Vehicle> page = vehicleRepository.findAfter(ours, cursor, pageSize);
+            page.forEach(v -> ids.add(v.getId()));
+            if (page.size() < pageSize || ids.size() > vehicles.size()) return ids;
+            cursor = VehicleCursor.decode(cursor.after(page.get(page.size() - 1)).encode());
+        }
+    }
+
+    /** The listing order: NULLs lowest as in MariaDB, ties broken by id in the same direction */
+    private static Comparator<Vehicle> order(String sort, Sort.Direction direction) {
+        Comparator<Vehicle> ascending = switch (sort) {
+            case "licensePlate" -> ascending(Vehicle::getLicensePlate);
+            case "vinNum" -> ascending(Vehicle::getVinNum);
+            case "technicalCheckValidUntil" -> ascending(Vehicle::getTechnicalCheckValidUntil);
+            case "providerAssignmentEndDate" -> ascending(Vehicle::getProviderAssignmentEndDate);
+            default -> ascending(Vehicle::getId);
+        };
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<Vehicle> ascending(Function<Vehicle, T> key) {
+        return Comparator.comparing(key, Comparator.nullsFirst(Comparator.<T>naturalOrder())).thenComparing(Vehicle::getId);
+    }
+}
@@ -0,0 +1,118 @@
+package sk.zzs.vehicle.management.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import sk.zzs.vehicle.management.dto.ImportResultSummary;
+import sk.zzs.vehicle.management.dto.ImportResultSummary.SectionResult;
+import sk.zzs.vehicle.management.enumer.ImportMode;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Importing a file again in UPSERT mode writes nothing when nothing changed, and exactly the
+ * changed record (with its UPDATE audit row) when one column did. Runs on the in-memory H2
+ * database in MariaDB mode the import benchmark uses.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:test;MODE=MariaDB;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=TIMESTAMP,VALUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+class DataImportServiceTest {
+
+    /** All keys of this test start with UPS-, so its rows are told apart from other tests' */
+    private static final String FILE = """
+            [Providers]
+            providerId,name,email,address
+            UPS-P1,Upsert One,one@ups.sk,Addr 1
+            UPS-P2,Upsert Two,two@ups.sk,Addr 2
+            [Vehicles]
+            vin_num,brand,model,license_plate,first_registration_date,technical_check_valid_until,provider_id,provider_assignment_end_date
+            UPS-VIN1,Skoda,Octavia,UPS-111,2020-01-01,2030-01-01,UPS-P1,2035-01-01
+            UPS-VIN2,Ford,Transit,UPS-222,2019-01-02,2030-01-01,UPS-P1,2035-01-01
+            [NetworkPoints]
+            code,name,type,valid_to,provider_id,provider_end_date
+            UPS-NP1,Bratislava,RZP,2035-01-01,UPS-P1,2034-01-01
+            UPS-NP2,Kosice,RLP,2035-01-01,UPS-P2,2034-01-01
+            """;
+
+    @Autowired
+    private DataImportService dataImportService;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void upsertWritesOnlyWhatChanged() {
+        ImportResultSummary created = importFile(FILE, ImportMode.CREATE);
+        assertEquals(List.of(), created.getErrors());
+        assertCounts(created.getProviders(), 2, 0, 0);
+        assertCounts(created.getVehicles(), 2, 0, 0);
+        assertCounts(created.getNetworkPoints(), 2, 0, 0);
+        List<Map<String, Object>> rows = registryRows();
+        // the create already logged an UPDATE: a provider became ACTIVE with its vehicles
+        long updates = updateAuditRows();
+
+        ImportResultSummary again = importFile(FILE, ImportMode.UPSERT);
+        assertEquals(List.of(), again.getErrors());
+        assertCounts(again.getProviders(), 0, 0, 2);
+        assertCounts(again.getVehicles(), 0, 0, 2);
+        assertCounts(again.getNetworkPoints(), 0, 0, 2);
+        assertEquals(rows, registryRows());
+        assertEquals(updates, updateAuditRows());
+
+        ImportResultSummary changed = importFile(FILE.replace("UPS-VIN2,Ford,Transit", "UPS-VIN2,Ford,Tourneo"), ImportMode.UPSERT);
+        assertEquals(List.of(), changed.getErrors());
+        assertCounts(changed.getProviders(), 0, 0, 2);
+        assertCounts(changed.getVehicles(), 0, 1, 1);
+        assertCounts(changed.getNetworkPoints(), 0, 0, 2);
+        rows.stream().filter(r -> "UPS-VIN2".equals(r.get("vin_num"))).forEach(r -> r.put("model", "Tourneo"));
+        assertEquals(rows, registryRows());
+        assertEquals(updates + 1, updateAuditRows());
+        assertEquals(List.of("UPS-VIN2 Tourneo"), jdbc.queryForList(
+                "SELECT CONCAT(vin_num, ' ', model) FROM vehicle_log WHERE operation = 'UPDATE' AND vin_num LIKE 'UPS-%'",
+                String.class));
+    }
+
+    private ImportResultSummary importFile(String csv, ImportMode mode) {
+        ImportContext ctx = new ImportContext();
+        ctx.setMode(mode);
+        dataImportService.importAll(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), ctx);
+        return ctx.getSummary();
+    }
+
+    private static void assertCounts(SectionResult section, int imported, int updated, int unchanged) {
+        assertEquals(List.of(imported, updated, unchanged, 0),
+                List.of(section.getImported(), section.getUpdated(), section.getUnchanged(), section.getSkipped()));
+    }
+
+    /** Every column of the providers, vehicles and network points of this test */
+    private List<Map<String, Object>> registryRows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.addAll(jdbc.queryForList("SELECT * FROM provider WHERE provider_id LIKE 'UPS-%' ORDER BY id"));
+        rows.addAll(jdbc.queryForList("SELECT * FROM vehicle WHERE vin_num LIKE 'UPS-%' ORDER BY id"));
+        rows.addAll(jdbc.queryForList("SELECT * FROM network_point WHERE code LIKE 'UPS-%' ORDER BY id"));
+        return rows;
+    }
+
+    private long updateAuditRows() {
+        return jdbc.queryForObject("""
+                SELECT (SELECT COUNT(*) FROM provider_log WHERE operation = 'UPDATE' AND provider_id_field LIKE 'UPS-%')
+                     + (SELECT COUNT(*) FROM vehicle_log WHERE operation = 'UPDATE' AND vin_num LIKE 'UPS-%')
+                     + (SELECT COUNT(*) FROM network_point_log WHERE operation = 'UPDATE' AND code LIKE 'UPS-%')
+                """, Long.class);
+    }
+}
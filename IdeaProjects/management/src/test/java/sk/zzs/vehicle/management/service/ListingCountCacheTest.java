@@ -0,0 +1,117 @@
+package sk.zzs.vehicle.management.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The estimated total of a page agrees with what the page itself shows, whatever the cached
+ * count says, and cached counts go away with their time to live or when there are too many.
+ */
+class ListingCountCacheTest {
+
+    private ListingCountCache cache;
+
+    /** Exact counts asked for */
+    private int counted;
+
+    @BeforeEach
+    void createCache() {
+        cache = new ListingCountCache();
+        ttl(3600);
+    }
+
+    @Test
+    void totalIsNeverBelowTheRowsSeen() {
+        cache.estimate("k", count(5)); // rows were added since this count
+
+        // page 3 of 10 with a next page: 30 rows seen and at least one more
+        assertEquals(31, cache.withEstimatedTotal(slice(2, 10, 10, true), "k", count(99)).getTotalElements());
+        // the estimate is kept where it is above what the page shows
+        cache.estimate("k2", count(1000));
+        assertEquals(1000, cache.withEstimatedTotal(slice(2, 10, 10, true), "k2", count(99)).getTotalElements());
+        assertEquals(2, counted);
+    }
+
+    @Test
+    void totalIsExactOnTheLastPage() {
+        cache.estimate("k", count(1000));
+
+        assertEquals(14, cache.withEstimatedTotal(slice(1, 10, 4, false), "k", count(99)).getTotalElements());
+        assertEquals(1, counted);
+        // the last page corrected the cached count
+        assertEquals(14, cache.estimate("k", count(99)));
+        assertEquals(14, cache.withEstimatedTotal(slice(0, 10, 10, true), "k", count(99)).getTotalElements());
+        assertEquals(1, counted);
+    }
+
+    @Test
+    void totalIsCappedPastTheEnd() {
+        // an empty page 6: the listing has at most the 50 rows before it
+        assertEquals(50, cache.withEstimatedTotal(slice(5, 10, 0, false), "k", count(1000)).getTotalElements());
+        assertEquals(30, cache.withEstimatedTotal(slice(5, 10, 0, false), "k2", count(30)).getTotalElements());
+        assertEquals(2, counted);
+    }
+
+    @Test
+    void countExpiresWithItsTimeToLive() throws InterruptedException {
+        ttl(1);
+        assertEquals(5, cache.estimate("k", count(5)));
+        assertEquals(5, cache.estimate("k", count(6)));
+        assertEquals(1, counted);
+
+        Thread.sleep(1100);
+        assertEquals(6, cache.estimate("k", count(6)));
+        assertEquals(2, counted);
+    }
+
+    @Test
+    void staleCountsAreDroppedWhenFull() throws InterruptedException {
+        ttl(1);
+        for (int i = 1; i < ListingCountCache.MAX_ENTRIES; i++) cache.estimate("stale" + i, count(i));
+        Thread.sleep(1100);
+        ttl(3600);
+        cache.estimate("fresh", count(7));
+        cache.estimate("one more", count(8)); // full: the stale ones go, the fresh one stays
+
+        counted = 0;
+        assertEquals(7, cache.estimate("fresh", count(99)));
+        assertEquals(8, cache.estimate("one more", count(99)));
+        assertEquals(0, counted);
+    }
+
+    @Test
+    void allCountsAreDroppedWhenFullOfFreshOnes() {
+        for (int i = 0; i < ListingCountCache.MAX_ENTRIES; i++) cache.estimate("k" + i, count(i));
+        cache.estimate("one more", count(5));
+
+        counted = 0;
+        assertEquals(5, cache.estimate("one more", count(99)));
+        assertEquals(99, cache.estimate("k0", count(99)));
+        assertEquals(1, counted);
+    }
+
+    private void ttl(long seconds) {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", seconds);
+    }
+
+    private LongSupplier count(long count) {
+        return () -> {
+            counted++;
+            return count;
+        };
+    }
+
+    private static SliceImpl<String> slice(int page, int size, int elements, boolean hasNext) {
+        List<String> content = Collections.nCopies(elements, "row");
+        return new SliceImpl<>(content, PageRequest.of(page, size), hasNext);
+    }
+}
@@ -0,0 +1,131 @@
+package sk.zzs.vehicle.management.service;
+
+import org.junit.jupiter.api.Test;
+import sk.zzs.vehicle.management.dto.VehicleMatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The banded edit distance agrees with the full one wherever it is within the band, and the
+ * bigram pruning of the fuzzy lookup never drops a vehicle that is close enough.
+ */
+class VehicleSuggestIndexTest {
+
+    private static final int MAX_DISTANCE = 3;
+
+    @Test
+    void distanceMatchesFullDistanceForAllShortKeys() {
+        List<String> keys = new ArrayList<>();
+        allKeys("", "AB", 5, keys); // every key over {A, B} up to 5 characters, "" included
+        for (String a : keys) {
+            for (String b : keys) {
+                for (int max = 0; max <= MAX_DISTANCE; max++) {
+                    assertEquals(Math.min(fullDistance(a, b), max + 1), VehicleSuggestIndex.distance(a, b, max),
+                            "distance(" + a + ", " + b + ", " + max + ")");
+                }
+            }
+        }
+    }
+
+    @Test
+    void distanceMatchesFullDistanceAtBandEdges() {
+        Random random = new Random(42);
+        for (int n = 0; n < 20_000; n++) {
+            int max = random.nextInt(MAX_DISTANCE + 1);
+            String a = randomKey(random, "ABC", random.nextInt(12));
+            // the length difference is max or max + 1: on the edge of the band and just past it
+            int lengthDifference = max + random.nextInt(2);
+            String b = randomKey(random, "ABC", a.length() + lengthDifference);
+            for (String[] pair : new String[][]{{a, b}, {b, a}}) {
+                assertEquals(Math.min(fullDistance(pair[0], pair[1]), max + 1),
+                        VehicleSuggestIndex.distance(pair[0], pair[1], max),
+                        "distance(" + pair[0] + ", " + pair[1] + ", " + max + ")");
+            }
+        }
+    }
+
+    @Test
+    void fuzzyFindsEveryKeyWithinMaxDistance() {
+        Random random = new Random(7);
+        List<VehicleSuggestIndex.Entry> vehicles = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            // a small alphabet and short plates, so many keys are close to each other
+            String plate = random.nextInt(20) == 0 ? null : randomKey(random, "AB12", 2 + random.nextInt(6));
+            String vin = random.nextInt(3) == 0 ? null : randomKey(random, "AB12XY", 6 + random.nextInt(6));
+            vehicles.add(new VehicleSuggestIndex.Entry(id, plate, vin, null, false));
+        }
+        VehicleSuggestIndex index = new VehicleSuggestIndex(null);
+        index.putVehicles(vehicles);
+
+        for (int n = 0; n < 300; n++) {
+            VehicleSuggestIndex.Entry target = vehicles.get(random.nextInt(vehicles.size()));
+            String key = target.vinKey().isEmpty() || random.nextBoolean() ? target.plateKey() : target.vinKey();
+            String query = n % 10 == 0
+                    ? randomKey(random, "AB12", 1 + random.nextInt(3)) // too short to prune by bigrams
+                    : edit(random, key, random.nextInt(MAX_DISTANCE + 2));
+            if (query.isEmpty()) continue;
+
+            for (int maxDistance = 0; maxDistance <= MAX_DISTANCE; maxDistance++) {
+                Map<Long, Integer> expected = new HashMap<>();
+                for (VehicleSuggestIndex.Entry v : vehicles) {
+                    int d = Integer.MAX_VALUE;
+                    if (!v.plateKey().isEmpty()) d = fullDistance(query, v.plateKey());
+                    if (!v.vinKey().isEmpty()) d = Math.min(d, fullDistance(query, v.vinKey()));
+                    if (d <= maxDistance) expected.put(v.id(), d);
+                }
+                Map<Long, Integer> found = new HashMap<>();
+                for (VehicleMatch m : index.fuzzy(query, maxDistance, Integer.MAX_VALUE)) {
+                    found.put(m.vehicle().id(), m.distance());
+                }
+                assertEquals(expected, found, "fuzzy(" + query + ", " + maxDistance + ")");
+            }
+        }
+    }
+
+    /** Plain Levenshtein distance over the whole matrix */
+    private static int fullDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int sub = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                d[i][j] = Math.min(sub, Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1));
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static void allKeys(String prefix, String alphabet, int maxLength, List<String> keys) {
+        keys.add(prefix);
+        if (prefix.length() == maxLength) return;
+        for (char c : alphabet.toCharArray()) allKeys(prefix + c, alphabet, maxLength, keys);
+    }
+
+    private static String randomKey(Random random, String alphabet, int length) {
+        StringBuilder key = new StringBuilder(length);
+        for (int i = 0; i < length; i++) key.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        return key.toString();
+    }
+
+    /** {@code key} with {@code edits} random substitutions, insertions and deletions */
+    private static String edit(Random random, String key, int edits) {
+        StringBuilder s = new StringBuilder(key);
+        for (int e = 0; e < edits; e++) {
+            int op = s.isEmpty() ? 1 : random.nextInt(3);
+            char c = "AB12XY".charAt(random.nextInt(6));
+            switch (op) {
+                case 0 -> s.setCharAt(random.nextInt(s.length()), c);
+                case 1 -> s.insert(random.nextInt(s.length() + 1), c);
+                default -> s.deleteCharAt(random.nextInt(s.length()));
+            }
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,175 @@
+package sk.zzs.vehicle.management.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Sections, records and record numbers come out of spreadsheet-mangled CSV the way the user
+ * sees them in the file, whatever the markers are glued to and whichever charset was used.
+ */
+class CsvSectionReaderTest {
+
+    private static final Charset WINDOWS_1250 = Charset.forName("windows-1250");
+
+    @Test
+    void splitsMarkersGluedToTextOrPaddedWithCommas() throws IOException {
+        String csv = """
+                  [Providers],,,
+                providerId,name
+                P1,Alpha
+                P2,Beta[Vehicles]vin_num,brand
+                V1,Skoda
+                ,,,
+
+                V2,Tatra,[NetworkPoints],,code
+                [Bogus] stays a value,x
+                """;
+        assertEquals(List.of(
+                "Providers 1: providerId=P1 name=Alpha",
+                "Providers 2: providerId=P2 name=Beta",
+                "Vehicles 1: vin_num=V1 brand=Skoda",
+                "Vehicles 2: vin_num=V2 brand=Tatra",
+                "NetworkPoints 1: code=[Bogus] stays a value"),
+                readAll(new CsvSectionReader(new StringReader(csv)), "providerId", "name", "vin_num", "brand", "code"));
+    }
+
+    @Test
+    void trimsTrailingCommasOfTheHeader() throws IOException {
+        String csv = """
+                [Providers]
+                providerId, name ,,,
+                P1,Alpha,,
+                """;
+        try (CsvSectionReader reader = new CsvSectionReader(new StringReader(csv))) {
+            assertEquals("Providers", reader.nextSection());
+            List<ImportRecord> records = reader.records().toList();
+            assertEquals(1, records.size());
+            assertEquals("Alpha", records.get(0).get("name"));
+            assertNull(records.get(0).get("email"));
+            assertNull(records.get(0).get(""));
+        }
+
+        String blankHeader = """
+                [Providers]
+                "", ""
+                P1,Alpha
+                """;
+        try (CsvSectionReader reader = new CsvSectionReader(new StringReader(blankHeader))) {
+            reader.nextSection();
+            assertThrows(IllegalArgumentException.class, reader::records);
+        }
+    }
+
+    @Test
+    void sectionEndsAtTheNextMarker() throws IOException {
+        StringBuilder csv = new StringBuilder("[Providers]\n[Vehicles]\nvin_num\n");
+        for (int i = 0; i < 20_000; i++) csv.append("V").append(i).append('\n'); // far more than the parser buffers
+        csv.append("[NetworkPoints]\ncode\nN1\nN2\n[Providers]\nproviderId\nP1\n");
+
+        try (CsvSectionReader reader = new CsvSectionReader(new StringReader(csv.toString()))) {
+            // a section without a header has no records, its end is the marker of the next one
+            assertEquals("Providers", reader.nextSection());
+            assertEquals(List.of(), reader.records().toList());
+
+            // partly read: the rest is skipped up to the next marker
+            assertEquals("Vehicles", reader.nextSection());
+            try (Stream<ImportRecord> records = reader.records()) {
+                assertEquals(Optional.of("V0"), records.findFirst().map(r -> r.get("vin_num")));
+            }
+
+            // read to the end: the parser has already taken the next marker and hands it on
+            assertEquals("NetworkPoints", reader.nextSection());
+            assertEquals(List.of("N1", "N2"), reader.records().map(r -> r.get("code")).toList());
+
+            // not read at all
+            assertEquals("Providers", reader.nextSection());
+            assertNull(reader.nextSection());
+            assertNull(reader.nextSection());
+        }
+    }
+
+    @Test
+    void dropsByteOrderMarkAtTheStartOfAnyLine() throws IOException {
+        // a zip of CSV files saved by Excel: every file starts with a BOM
+        byte[] bytes = bytes(StandardCharsets.UTF_8,
+                "\uFEFF[Providers]\nproviderId\nP1\n\uFEFF[Vehicles]\nvin_num\nV1\n\uFEFFV2\n");
+        assertEquals(List.of(
+                "Providers 1: providerId=P1",
+                "Vehicles 1: vin_num=V1",
+                "Vehicles 2: vin_num=V2"),
+                readAll(CsvSectionReader.open(new ByteArrayInputStream(bytes)), "providerId", "vin_num"));
+    }
+
+    @Test
+    void picksTheCharsetFromTheFirstBlock() throws IOException {
+        String csv = "[Providers]\nproviderId,name\nP1,Žilinská záchranka\n";
+        List<String> expected = List.of("Providers 1: providerId=P1 name=Žilinská záchranka");
+        assertEquals(expected, readAll(CsvSectionReader.open(new ByteArrayInputStream(bytes(StandardCharsets.UTF_8, csv))),
+                "providerId", "name"));
+        assertEquals(expected, readAll(CsvSectionReader.open(new ByteArrayInputStream(bytes(WINDOWS_1250, csv))),
+                "providerId", "name"));
+    }
+
+    @Test
+    void onlyTheFirst64KbDecideTheCharset() throws IOException {
+        // "Ž" takes two bytes in UTF-8; put one across the end of the first block
+        String head = "[Providers]\nproviderId,name\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(bytes(StandardCharsets.UTF_8, head));
+        int row = 1;
+        while (out.size() < 64 * 1024 - 100) {
+            out.writeBytes(bytes(StandardCharsets.UTF_8, "P" + row++ + ",Záchranka\n"));
+        }
+        String cut = "P" + row + "," + "x".repeat(64 * 1024 - out.size() - ("P" + row + ",").length() - 1) + "Žilina\n";
+        out.writeBytes(bytes(StandardCharsets.UTF_8, cut));
+        assertEquals((byte) 0xC5, out.toByteArray()[64 * 1024 - 1]); // first byte of "Ž" ends the block
+        // windows-1250 after the first block does not switch the charset any more
+        out.writeBytes(bytes(WINDOWS_1250, "P" + (row + 1) + ",Košice\n"));
+
+        List<ImportRecord> records;
+        try (CsvSectionReader reader = CsvSectionReader.open(new ByteArrayInputStream(out.toByteArray()))) {
+            reader.nextSection();
+            records = reader.records().toList();
+        }
+        assertEquals(row + 1, records.size());
+        assertEquals("Záchranka", records.get(0).get("name"));
+        assertEquals(cut.substring(cut.indexOf(',') + 1, cut.length() - 1), records.get(row - 1).get("name"));
+        assertEquals("Ko\uFFFDice", records.get(row).get("name"));
+        assertEquals(row + 1, records.get(row).getRecordNumber());
+    }
+
+    private static byte[] bytes(Charset charset, String text) {
+        return text.getBytes(charset);
+    }
+
+    /** Every record of every section as "Section number: column=value ...", leaving out columns the section lacks */
+    private static List<String> readAll(SectionReader reader, String... columns) throws IOException {
+        List<String> rows = new ArrayList<>();
+        try (reader) {
+            for (String section = reader.nextSection(); section != null; section = reader.nextSection()) {
+                for (ImportRecord r : reader.records().toList()) {
+                    StringBuilder row = new StringBuilder(section + " " + r.getRecordNumber() + ":");
+                    for (String column : columns) {
+                        if (r.get(column) != null) row.append(' ').append(column).append('=').append(r.get(column));
+                    }
+                    rows.add(row.toString());
+                }
+            }
+        }
+        return rows;
+    }
+}
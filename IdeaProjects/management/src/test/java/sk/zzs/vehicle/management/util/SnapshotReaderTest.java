@@ -0,0 +1,147 @@
+package sk.zzs.vehicle.management.util;
+
+import org.junit.jupiter.api.Test;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Column;
+import sk.zzs.vehicle.management.util.SnapshotFormat.ColumnType;
+import sk.zzs.vehicle.management.util.SnapshotFormat.Table;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Snapshots written by {@link SnapshotWriter} read back unchanged, and damaged ones are rejected
+ * instead of restoring part of the registry.
+ */
+class SnapshotReaderTest {
+
+    private static final long CREATED_AT = 1_760_000_000_000L;
+
+    private static final Table VEHICLES = new Table("vehicle", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("seats", ColumnType.INT),
+            new Column("archived", ColumnType.BOOLEAN),
+            new Column("license_plate", ColumnType.STRING),
+            new Column("first_registration", ColumnType.DATE),
+            new Column("updated_at", ColumnType.TIMESTAMP),
+            new Column("price", ColumnType.DECIMAL),
+            new Column("mileage", ColumnType.DOUBLE)));
+
+    private static final Table PROVIDERS = new Table("provider", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("name", ColumnType.STRING)));
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Map<Table, List<Object[]>> tables = new LinkedHashMap<>();
+        tables.put(VEHICLES, vehicles(25_000)); // three blocks
+        tables.put(PROVIDERS, List.of());       // a table without rows
+        tables.put(new Table("network_point", List.of(new Column("note", ColumnType.STRING))),
+                List.<Object[]>of(new Object[]{"x".repeat(1_500_000)}, new Object[]{"žltá ŠKODA"}));
+
+        byte[] bytes = write(tables);
+        SnapshotReader reader = new SnapshotReader(new ByteArrayInputStream(bytes));
+        assertEquals(CREATED_AT, reader.getCreatedAt());
+
+        Map<Table, List<Object[]>> read = readAll(reader);
+        assertEquals(List.copyOf(tables.keySet()), List.copyOf(read.keySet()));
+        for (Map.Entry<Table, List<Object[]>> e : tables.entrySet()) {
+            List<Object[]> expected = e.getValue();
+            List<Object[]> actual = read.get(e.getKey());
+            assertEquals(expected.size(), actual.size(), e.getKey().name());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(expected.get(i), actual.get(i), e.getKey().name() + " row " + i);
+            }
+        }
+    }
+
+    @Test
+    void rejectsEveryCutOff() throws IOException {
+        byte[] bytes = write(small());
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] cut = Arrays.copyOf(bytes, length);
+            assertThrows(IOException.class, () -> readAll(new SnapshotReader(new ByteArrayInputStream(cut))),
+                    "cut off after " + length + " of " + bytes.length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsEveryFlippedBit() throws IOException {
+        byte[] bytes = write(small());
+        for (int i = 0; i < bytes.length; i++) {
+            for (int bit = 0; bit < 8; bit++) {
+                byte[] damaged = bytes.clone();
+                damaged[i] ^= (byte) (1 << bit);
+                assertThrows(IOException.class, () -> readAll(new SnapshotReader(new ByteArrayInputStream(damaged))),
+                        "bit " + bit + " of byte " + i + " flipped");
+            }
+        }
+    }
+
+    @Test
+    void rejectsTrailingData() throws IOException {
+        byte[] bytes = write(small());
+        byte[] longer = Arrays.copyOf(bytes, bytes.length + 1);
+        assertThrows(IOException.class, () -> readAll(new SnapshotReader(new ByteArrayInputStream(longer))));
+    }
+
+    private static Map<Table, List<Object[]>> small() {
+        Map<Table, List<Object[]>> tables = new LinkedHashMap<>();
+        tables.put(VEHICLES, vehicles(3));
+        tables.put(PROVIDERS, List.<Object[]>of(new Object[]{7L, "Záchranka"}));
+        return tables;
+    }
+
+    private static List<Object[]> vehicles(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            boolean nulls = i % 7 == 3;
+            rows.add(new Object[]{
+                    (long) i,
+                    nulls ? null : i % 9,
+                    i % 2 == 0,
+                    nulls ? null : "BA" + i + "ŽŠ",
+                    nulls ? null : LocalDate.of(2000, 1, 1).plusDays(i),
+                    nulls ? null : LocalDateTime.of(2025, 3, 1, 12, 0).plusSeconds(i).withNano(i * 1000),
+                    nulls ? null : new BigDecimal("1234.50").add(BigDecimal.valueOf(i)),
+                    nulls ? null : i * 0.25});
+        }
+        return rows;
+    }
+
+    private static byte[] write(Map<Table, List<Object[]>> tables) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SnapshotWriter writer = new SnapshotWriter(out, CREATED_AT);
+        for (Map.Entry<Table, List<Object[]>> e : tables.entrySet()) {
+            writer.beginTable(e.getKey());
+            for (Object[] row : e.getValue()) writer.writeRow(row);
+            writer.endTable();
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    private static Map<Table, List<Object[]>> readAll(SnapshotReader reader) throws IOException {
+        Map<Table, List<Object[]>> tables = new LinkedHashMap<>();
+        for (Table table = reader.nextTable(); table != null; table = reader.nextTable()) {
+            List<Object[]> rows = new ArrayList<>();
+            for (List<Object[]> block = reader.nextBlock(); block != null; block = reader.nextBlock()) {
+                rows.addAll(block);
+            }
+            tables.put(table, rows);
+        }
+        return tables;
+    }
+}
@@ -0,0 +1,155 @@
+package sk.zzs.vehicle.management.util;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Workbook cells come out as the text the CSV import would have read, numbered by the sheet row
+ * Excel shows, whether the workbook keeps its strings in the shared table (Excel, POI's XSSF) or
+ * inline in the cells (POI's streaming SXSSF and many export tools).
+ */
+class XlsxSectionReaderTest {
+
+    private static final List<String> EXPECTED = List.of(
+            "Vehicles 4: licensePlate=BA123AA brand=Škoda technicalCheckValidUntil=2026-03-15 seats=5 price=1234.5 archived=FALSE",
+            "Vehicles 7: licensePlate=KE999ZZ brand= technicalCheckValidUntil=2027-01-01 seats=1000000 price=0.1 archived=TRUE",
+            "Vehicles 8: licensePlate=ZA1 brand=Tatra technicalCheckValidUntil= seats=12 price=-3 archived=",
+            "Other 2: licensePlate=x");
+
+    @TempDir
+    private Path tmp;
+
+    @Test
+    void readsSharedStrings() throws IOException {
+        Path file = write(new XSSFWorkbook(), "shared.xlsx");
+        assertTrue(sheetXml(file).contains("t=\"s\""));
+        assertEquals(EXPECTED, readAll(file));
+    }
+
+    @Test
+    void readsInlineStrings() throws IOException {
+        Path file = write(new SXSSFWorkbook(), "inline.xlsx");
+        assertTrue(sheetXml(file).contains("t=\"inlineStr\""));
+        assertEquals(EXPECTED, readAll(file));
+    }
+
+    @Test
+    void leavesOutColumnsTheSheetLacks() throws IOException {
+        try (XlsxSectionReader reader = new XlsxSectionReader(write(new XSSFWorkbook(), "columns.xlsx"))) {
+            assertEquals("Providers", reader.nextSection());
+            assertEquals(List.of(), reader.records().toList());
+            assertEquals("Vehicles", reader.nextSection());
+            ImportRecord first = reader.records().findFirst().orElseThrow();
+            assertNull(first.get("model"));
+            assertNull(first.get(""));
+            assertEquals("Other", reader.nextSection());
+            assertNull(reader.nextSection());
+        }
+    }
+
+    /**
+     * Sheets "Providers" (header only), " vehicles" (to be matched whatever the case and spaces)
+     * and "Other". The vehicles header is on sheet row 3 after two empty rows, column C is
+     * empty throughout, rows 5 and 6 are blank.
+     */
+    private Path write(Workbook workbook, String name) throws IOException {
+        try (workbook) {
+            CellStyle date = workbook.createCellStyle();
+            date.setDataFormat(workbook.createDataFormat().getFormat("d.m.yyyy"));
+            CellStyle twoDecimals = workbook.createCellStyle();
+            twoDecimals.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+            Sheet providers = workbook.createSheet("Providers");
+            providers.createRow(0).createCell(0).setCellValue("providerId");
+
+            Sheet vehicles = workbook.createSheet(" vehicles");
+            Row header = vehicles.createRow(2);
+            String[] columns = {"licensePlate", "brand", null, "technicalCheckValidUntil", "seats", "price", "archived"};
+            for (int i = 0; i < columns.length; i++) {
+                if (columns[i] != null) header.createCell(i).setCellValue(columns[i]);
+            }
+
+            Row row = vehicles.createRow(3);
+            row.createCell(0).setCellValue("BA123AA");
+            row.createCell(1).setCellValue("Škoda");
+            row.createCell(3).setCellValue(LocalDate.of(2026, 3, 15));
+            row.getCell(3).setCellStyle(date);
+            row.createCell(4).setCellValue(5.0);
+            row.createCell(5).setCellValue(1234.50);
+            row.getCell(5).setCellStyle(twoDecimals);
+            row.createCell(6).setCellValue(false);
+
+            vehicles.createRow(4);                             // no cells
+            vehicles.createRow(5).createCell(1).setCellValue("  ");
+
+            row = vehicles.createRow(6);                       // brand left out
+            row.createCell(0).setCellValue("KE999ZZ");
+            row.createCell(3).setCellValue(LocalDate.of(2027, 1, 1));
+            row.getCell(3).setCellStyle(date);
+            row.createCell(4).setCellValue(1e6);
+            row.createCell(5).setCellValue(0.1);
+            row.createCell(6).setCellValue(true);
+
+            row = vehicles.createRow(7);                       // nothing after the seats
+            row.createCell(0).setCellValue("ZA1");
+            row.createCell(1).setCellValue("Tatra");
+            row.createCell(4).setCellValue(12);
+            row.createCell(5).setCellValue(-3.0);
+
+            Sheet other = workbook.createSheet("Other");
+            other.createRow(0).createCell(0).setCellValue("licensePlate");
+            other.createRow(1).createCell(0).setCellValue("x");
+
+            Path file = tmp.resolve(name);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                workbook.write(out);
+            }
+            return file;
+        }
+    }
+
+    /** XML of the vehicles sheet, to tell how the writer stored its strings */
+    private static String sheetXml(Path file) throws IOException {
+        try (ZipFile zip = new ZipFile(file.toFile())) {
+            return new String(zip.getInputStream(zip.getEntry("xl/worksheets/sheet2.xml")).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** Every record as "Section number: column=value ...", leaving out columns the section lacks */
+    private static List<String> readAll(Path file) throws IOException {
+        String[] columns = {"licensePlate", "brand", "technicalCheckValidUntil", "seats", "price", "archived"};
+        List<String> rows = new ArrayList<>();
+        try (XlsxSectionReader reader = new XlsxSectionReader(file)) {
+            for (String section = reader.nextSection(); section != null; section = reader.nextSection()) {
+                for (ImportRecord r : reader.records().toList()) {
+                    StringBuilder row = new StringBuilder(section + " " + r.getRecordNumber() + ":");
+                    for (String column : columns) {
+                        if (r.get(column) != null) row.append(' ').append(column).append('=').append(r.get(column));
+                    }
+                    rows.add(row.toString());
+                }
+            }
+        }
+        return rows;
+    }
+}